@@ -0,0 +1,372 @@
+import java.io.*;
+import java.lang.management.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Class Benchmark
+ *
+ * Times each stage of the grader on generated practice-it.csv exports so a change to one of them
+ *   can be checked for regressions.  This is the quick run with nothing but javac - warmup iterations,
+ *   then measured iterations, each op getting fresh state set up outside the timing.  The JMH benchmarks
+ *   of jmh/ (mvn -P jmh package) time the same ops, through GradingStages
+ *
+ *   java Benchmark                          classes of 200, 1000 & 5000 students
+ *   java Benchmark students=100,10000 chapters=1-9 problems=40 lines=30 iterations=10 warmup=5 seed=7
+ *
+ * Stages
+ *   readProblems sequential / mapped / parallel / pipelined / incremental (cache already current)
+ *                      / dedup (sequential, each distinct Solution Code fingerprinted once)
+ *   StructuralIndex    - record ends of the whole export, from memory, on StructuralIndex.CLASSIFIER
+ *                        (SWAR, or the Vector API when built with -P vector & run with
+ *                        --add-modules jdk.incubator.vector)
+ *   computeCodeHash    - every Solution Code hashed & winnowed, from memory
+ *   RedFlagScanner     - every Solution Code scanned for the problem's red flags, from memory
+ *   duplicates+similar - CodeGroups & SimilarityIndex on every assigned exercise
+ *   printResults       - the whole report, written to nowhere
+ *
+ * For each stage it prints time per op, throughput, bytes allocated per op & per second and GC count
+ *   & time per op (like JMH's gc profiler).  Allocation is each thread's since the op started
+ *   (StageStats.allocatedSince), pipeline threads that ended during it included.  Running several
+ *   class sizes shows how each stage scales - time per record should stay flat, if it grows with
+ *   the class the stage is worse than linear
+ *
+ * The exports come from DatasetGenerator - the problems of some chapters of "BJP Problem Names.csv", lines is
+ *   the size of each exercise's code, with planted copies so the cheat checks have something to find
+ *
+ * Version 2.1 - 10/18/26 initial version
+ *                      exports made by DatasetGenerator
+ *                      readProblems dedup stage (CodeCache)
+ *                      allocation of threads that end during an op counted
+ *                      stage ops & dataset setup shared with the JMH benchmarks
+ *                      structural index classifier in the header
+ */
+class Benchmark {
+    private static final double MB = 1024 * 1024;
+
+    private final int problems; // most problems, 0 for all those in the chapters
+    private final int lines;
+    private final int iterations;
+    private final int warmup;
+    private final long seed;
+    private final List<DatasetGenerator.ProblemName> names;
+    private final PrintStream out = System.out;
+    static volatile long blackhole; // results of the ops end up here so they can't be optimized away
+
+    // Current class size
+    private Path source;
+    private List<String> userNames;
+    private List<String> codes;      // every Solution Code, in file order
+    private List<Integer> codeKeys;  // ProblemKey of each code
+    private ByteBuffer export;       // the whole export, in memory
+    private ProblemIndex index;      // of assignedProblems
+    private List<Map<String, Long>> hashes;   // of each exercise, as printResults leaves them
+    private List<Map<String, long[]>> kgrams;
+
+    Benchmark(Map<String, String> options) throws IOException {
+        problems = Integer.parseInt(options.getOrDefault("problems", "0"));
+        lines = Integer.parseInt(options.getOrDefault("lines", "15"));
+        iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+        warmup = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        names = DatasetGenerator.select(DatasetGenerator.readProblemNames(Paths.get(DatasetGenerator.PROBLEM_NAMES)),
+                options.getOrDefault("chapters", "1-2"), problems);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<String, String>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals == -1) {
+                System.out.println("Usage: java Benchmark [students=200,1000,5000] [chapters=1-2] [problems=all] [lines=15] [iterations=5] [warmup=3] [seed=1]");
+                return;
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        Benchmark benchmark = new Benchmark(options);
+        Path folder = Files.createTempDirectory("practiceit-benchmark");
+        try {
+            for (String students : options.getOrDefault("students", "200,1000,5000").split(","))
+                benchmark.run(folder, Integer.parseInt(students.trim()));
+        } finally {
+            try (Stream<Path> files = Files.walk(folder)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+                    Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Generates an export for a class size and times every stage on it
+     */
+    private void run(Path folder, int students) throws IOException {
+        generate(Files.createDirectories(folder.resolve("students-" + students)), students);
+        long size = Files.size(source);
+        long codeBytes = 0;
+        for (String code : codes)
+            codeBytes += code.length();
+        out.printf("\n%d students x %d problems, %d records, %.1f MB (%d code lines per solution, %s structural index)\n",
+                students, names.size(), codes.size(), size / MB, lines, StructuralIndex.CLASSIFIER);
+        out.printf("%-26s %10s %12s %10s %12s %12s %6s %8s\n",
+                "stage", "ms/op", "records/s", "MB/s", "alloc MB/op", "alloc MB/s", "gc/op", "gc ms/op");
+
+        for (String mode : READ_MODES)
+            measureRead("readProblems " + mode, size, mode);
+        Files.deleteIfExists(GradingCache.cachePathFor(source));
+
+        measure("StructuralIndex", size, () -> null, state -> structuralIndex());
+        measure("computeCodeHash", codeBytes, () -> null, state -> computeCodeHash());
+        measure("RedFlagScanner", codeBytes, () -> null, state -> redFlags());
+        measure("duplicates+similar", size, () -> null, state -> duplicatesAndSimilar());
+        measure("printResults", size, this::newReport, state -> printResults((Object[]) state));
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // Stages
+    //   each returns something derived from its result so it isn't optimized away
+    ////////////////////////////////////////////////////////////////////
+
+    // incremental last - its first op writes the cache, the rest replay it
+    static final String[] READ_MODES = {"sequential", "mapped", "parallel", "pipelined", "dedup", "incremental"};
+
+    /**
+     * Sets the PracticeItGrader flags of a readProblems mode
+     *
+     * @param mode - one of READ_MODES
+     */
+    static void setReadMode(String mode) {
+        if (!Arrays.asList(READ_MODES).contains(mode))
+            throw new IllegalArgumentException("no readProblems mode " + mode);
+        PracticeItGrader.ifMemoryMapped = mode.equals("mapped");
+        PracticeItGrader.ifParallel = mode.equals("parallel");
+        PracticeItGrader.ifPipelined = mode.equals("pipelined");
+        PracticeItGrader.ifIncremental = mode.equals("incremental");
+        PracticeItGrader.ifDedupCode = mode.equals("dedup");
+    }
+
+    /**
+     * Fresh class list & assigned problems for readProblems
+     */
+    Object[] newRead() {
+        return new Object[] {classList(), assignedProblems()};
+    }
+
+    /**
+     * @param state - from newRead
+     */
+    long readProblems(Object[] state) throws IOException {
+        @SuppressWarnings("unchecked")
+        ArrayList<Problem> problemList = (ArrayList<Problem>) state[1];
+        return Problem.readProblems(source, (StudentRegistry) state[0], problemList).getSubmissions().size();
+    }
+
+    // record ends of the whole export
+    long structuralIndex() {
+        StructuralIndex structure = new StructuralIndex(false);
+        structure.lastRecordEnd(export, 0, export.limit());
+        return structure.getRecords();
+    }
+
+    long computeCodeHash() {
+        Winnower winnower = new Winnower();
+        long total = 0;
+        for (String code : codes) {
+            total += Problem.computeCodeHash(code, 0, code.length(), winnower);
+            total += winnower.finish().length;
+        }
+        return total;
+    }
+
+    long redFlags() {
+        long total = 0;
+        for (int i = 0; i < codes.size(); i++) {
+            Problem problem = index.get(codeKeys.get(i));
+            RedFlagScanner scanner = problem != null ? problem.getRedFlagScanner() : null;
+            if (scanner != null)
+                total += RedFlagScanner.total(scanner.countLines(codes.get(i), 0, codes.get(i).length()));
+        }
+        return total;
+    }
+
+    long duplicatesAndSimilar() {
+        long total = 0;
+        for (List<List<String>> groups : CodeGroups.findAllDuplicates(hashes))
+            total += groups.size();
+        for (List<SimilarityIndex.Match> pairs : SimilarityIndex.findAllSimilar(kgrams, PracticeItGrader.similarThreshold))
+            total += pairs.size();
+        return total;
+    }
+
+    /**
+     * Assigned problems & the students read into them, for printResults
+     */
+    Object[] newReport() throws IOException {
+        ArrayList<Problem> problemList = assignedProblems();
+        return new Object[] {problemList, Problem.readProblems(source, classList(), problemList)};
+    }
+
+    /**
+     * The whole report, written to nowhere
+     *
+     * @param state - from newReport
+     */
+    long printResults(Object[] state) throws IOException {
+        @SuppressWarnings("unchecked")
+        ArrayList<Problem> problemList = (ArrayList<Problem>) state[0];
+        printQuietly(problemList, (StudentRegistry) state[1]);
+        return 0;
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // Measuring
+    ////////////////////////////////////////////////////////////////////
+
+    private interface Setup {
+        Object get() throws IOException;
+    }
+
+    private interface Op {
+        long run(Object state) throws IOException;
+    }
+
+    private void measureRead(String stage, long bytes, String mode) throws IOException {
+        boolean[] saved = {PracticeItGrader.ifMemoryMapped, PracticeItGrader.ifParallel, PracticeItGrader.ifPipelined,
+                PracticeItGrader.ifIncremental, PracticeItGrader.ifDedupCode};
+        setReadMode(mode);
+        try {
+            measure(stage, bytes, this::newRead, state -> readProblems((Object[]) state));
+        } finally {
+            PracticeItGrader.ifMemoryMapped = saved[0];
+            PracticeItGrader.ifParallel = saved[1];
+            PracticeItGrader.ifPipelined = saved[2];
+            PracticeItGrader.ifIncremental = saved[3];
+            PracticeItGrader.ifDedupCode = saved[4];
+        }
+    }
+
+    /**
+     * Runs warmup then measured ops and prints one line
+     *
+     * @param stage - name printed
+     * @param bytes - input bytes of one op for MB/s
+     * @param setup - fresh state for each op, not timed
+     * @param op - the work timed, returns something derived from its result so it isn't optimized away
+     */
+    private void measure(String stage, long bytes, Setup setup, Op op) throws IOException {
+        long sink = 0;
+        for (int i = 0; i < warmup; i++)
+            sink += op.run(setup.get());
+
+        long nanos = 0, allocated = 0, gcCount = 0, gcMillis = 0;
+        for (int i = 0; i < iterations; i++) {
+            Object state = setup.get();
+            long[] gcBefore = gcTotals();
+            Map<Long, Long> allocatedBefore = StageStats.allocatedByThread();
+            long start = System.nanoTime();
+            sink += op.run(state);
+            nanos += System.nanoTime() - start;
+            allocated += StageStats.allocatedSince(allocatedBefore);
+            long[] gcAfter = gcTotals();
+            gcCount += gcAfter[0] - gcBefore[0];
+            gcMillis += gcAfter[1] - gcBefore[1];
+        }
+        double seconds = nanos / 1e9 / iterations;
+        out.printf("%-26s %10.2f %12.0f %10.1f %12.1f %12.1f %6.1f %8.1f\n",
+                stage, seconds * 1000, codes.size() / seconds, bytes / MB / seconds,
+                allocated / MB / iterations, allocated / MB / iterations / seconds,
+                (double) gcCount / iterations, (double) gcMillis / iterations);
+        blackhole += sink;
+    }
+
+    // count & milliseconds of every collection so far
+    private static long[] gcTotals() {
+        long[] totals = new long[2];
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals[0] += Math.max(gc.getCollectionCount(), 0);
+            totals[1] += Math.max(gc.getCollectionTime(), 0);
+        }
+        return totals;
+    }
+
+    private static void printQuietly(ArrayList<Problem> problemList, StudentRegistry students) throws IOException {
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            PracticeItGrader.printResults(true, problemList, students);
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // Data
+    ////////////////////////////////////////////////////////////////////
+
+    private StudentRegistry classList() {
+        StudentRegistry students = new StudentRegistry();
+        for (int i = 0; i < userNames.size(); i++)
+            students.add(new Student(userNames.get(i), "First" + i, "Last" + i));
+        return students;
+    }
+
+    // Every generated problem, exercises with a couple of red flags
+    private ArrayList<Problem> assignedProblems() {
+        ArrayList<Problem> assigned = new ArrayList<Problem>();
+        for (DatasetGenerator.ProblemName name : names) {
+            int[] chapterVerse = Problem.splitProblemNumber(name.number);
+            Problem problem = new Problem(name.ifSelfCheck ? "Self-Check" : "Exercise", chapterVerse[0], chapterVerse[1]);
+            if (!name.ifSelfCheck) {
+                problem.addRedFlag("System.exit");
+                problem.addRedFlag("\\\"quoted\\\"");
+            }
+            problem.compileRedFlags();
+            assigned.add(problem);
+        }
+        return assigned;
+    }
+
+    /**
+     * Generates the export for a class with DatasetGenerator then reads back its usernames & code,
+     *   and makes the inputs of the stages that start from memory
+     */
+    void generate(Path folder, int students) throws IOException {
+        DatasetGenerator generator = new DatasetGenerator(names);
+        generator.setStudents(students);
+        generator.setLines(lines);
+        generator.setSeed(seed);
+        generator.write(folder);
+        source = folder.resolve("practice-it.csv");
+
+        Set<String> users = new LinkedHashSet<String>();
+        codes = new ArrayList<String>();
+        codeKeys = new ArrayList<Integer>();
+        try (CsvReader csv = new CsvReader(source)) {
+            Problem.readHeader(csv);
+            while (csv.next()) {
+                users.add(csv.fieldString(Problem.CSV.USER.ordinal()));
+                String problem = csv.fieldString(Problem.CSV.PROBLEM.ordinal());
+                String[] results = problem.split("[: ]+");
+                codeKeys.add(ProblemKey.of(results[1], Problem.splitProblemNumber(results[2])[0], Problem.splitProblemNumber(results[2])[1]));
+                codes.add(csv.fieldString(Problem.CSV.CODE.ordinal()));
+            }
+        }
+        userNames = new ArrayList<String>(users);
+
+        export = StructuralIndex.wrap(Files.readAllBytes(source));
+        index = new ProblemIndex(assignedProblems());
+        // the cheat checks need the maps printResults fills in
+        ArrayList<Problem> graded = assignedProblems();
+        printQuietly(graded, Problem.readProblems(source, classList(), graded));
+        hashes = new ArrayList<Map<String, Long>>();
+        kgrams = new ArrayList<Map<String, long[]>>();
+        for (Problem p : graded) {
+            if (p.getType().equals("Exercise")) {
+                hashes.add(p.getCodeHash());
+                kgrams.add(p.getKGrams());
+            }
+        }
+    }
+}
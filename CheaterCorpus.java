@@ -0,0 +1,389 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Class CheaterCorpus
+ *
+ * Known cheater code (Cheaters.txt) compiled into a binary index next to it (Cheaters.idx)
+ *
+ * Parsing & fingerprinting the whole Cheaters.txt every run is the slow part of startup and grows with
+ *   every scraped corpus, so it's done once: the index holds every entry's user, problem, code hash,
+ *   k-gram fingerprints & red flag for all problems, not just the assigned ones.  Later runs memory map
+ *   the index and only decode the entries of the problems asked for.  The index remembers the length &
+ *   CRC32C of Cheaters.txt it was built from (and the hashing settings) and is rebuilt when they change
+ *
+ *   header     magic, version, source length, source checksum, hash settings, entry count
+ *   directory  one 24 byte slot per entry sorted by ProblemKey (file order within a problem)
+ *                 key, kgram count, code hash, data offset
+ *   data       per entry - user name, red flag count & red flags (UTF-8, length first), kgrams
+ *
+ * Format of Cheaters.txt
+ *
+ *   **userName Exercise 12:18 result.lastIndexOf "i + 1"
+ *   public static void waysToClimb(int n) {
+ *       waysToClimb(n, 0, "[");
+ *   }
+ *
+ *   ** flags beginning of line
+ *   any tokens after the problem are red flags - a single token (no whitespace), or everything
+ *   between a quote and the next quote that ends the line or is followed by whitespace
+ *   code will continue until next ** at head of line
+ *
+ * Version 2.1 - 10/18/26 initial version, replaces parsing Cheaters.txt in Problem.readAssignedProblems
+ *                      the last entry of the file is no longer dropped, nor everything after an undecodable byte
+ *                      any number of red flags per entry (format version 2)
+ */
+class CheaterCorpus {
+    private static final int MAGIC = 0x50494358; // "PICX"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = 24;
+
+    /**
+     * One cheater's code for one problem
+     */
+    static class Entry {
+        final String userName; // **userName
+        final int key;         // ProblemKey
+        final long codeHash;   // CodeFingerprint
+        final long[] kgrams;   // Winnower fingerprints
+        final String[] redFlags; // empty if none
+
+        Entry(String userName, int key, long codeHash, long[] kgrams, String[] redFlags) {
+            this.userName = userName;
+            this.key = key;
+            this.codeHash = codeHash;
+            this.kgrams = kgrams;
+            this.redFlags = redFlags;
+        }
+    }
+
+    private final ByteBuffer index;
+    private final int count;
+
+    private CheaterCorpus(ByteBuffer index) {
+        this.index = index;
+        this.count = index.getInt(28);
+    }
+
+    /**
+     * Loads the compiled index of a cheaters file, compiling it first if it's missing or out of date
+     *
+     * @param source - Cheaters.txt
+     * @return corpus or null if the source can't be read
+     * @throws IOException
+     */
+    public static CheaterCorpus load(Path source) throws IOException {
+        if (!Files.isReadable(source))
+            return null;
+        Path indexPath = indexPathFor(source);
+        long length = Files.size(source);
+        long checksum = checksum(source);
+
+        if (Files.isReadable(indexPath)) {
+            try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                if (channel.size() >= HEADER_SIZE) {
+                    ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    if (isCurrent(mapped, length, checksum))
+                        return new CheaterCorpus(mapped);
+                }
+            }
+        }
+        return compile(source, indexPath, length, checksum);
+    }
+
+    /**
+     * Compiles a cheaters file into its index whether or not it's up to date
+     *   used by Cheaters.main after generating a file
+     *
+     * @param source - cheaters file
+     * @return the new corpus
+     * @throws IOException
+     */
+    public static CheaterCorpus compile(Path source) throws IOException {
+        return compile(source, indexPathFor(source), Files.size(source), checksum(source));
+    }
+
+    /**
+     * Cheaters.txt -> Cheaters.idx
+     */
+    static Path indexPathFor(Path source) {
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return source.resolveSibling((dot == -1 ? name : name.substring(0, dot)) + ".idx");
+    }
+
+    /**
+     * Number of entries for all problems
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Entries of one problem in Cheaters.txt order
+     *
+     * @param key - ProblemKey
+     * @return entries, empty if no cheater has the problem
+     */
+    public List<Entry> get(int key) {
+        // lower bound of key in the sorted directory
+        int low = 0, high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (index.getInt(slot(mid)) < key)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        List<Entry> entries = new ArrayList<Entry>();
+        for (int i = low; i < count && index.getInt(slot(i)) == key; i++)
+            entries.add(decode(i));
+        return entries;
+    }
+
+    private static int slot(int i) {
+        return HEADER_SIZE + i * SLOT_SIZE;
+    }
+
+    private Entry decode(int i) {
+        int slot = slot(i);
+        int key = index.getInt(slot);
+        int kgramCount = index.getInt(slot + 4);
+        long codeHash = index.getLong(slot + 8);
+        int pos = (int) index.getLong(slot + 16);
+
+        int userLength = index.getInt(pos);
+        String userName = decodeString(pos + 4, userLength);
+        pos += 4 + userLength;
+        String[] redFlags = new String[index.getInt(pos)];
+        pos += 4;
+        for (int r = 0; r < redFlags.length; r++) {
+            int redFlagLength = index.getInt(pos);
+            redFlags[r] = decodeString(pos + 4, redFlagLength);
+            pos += 4 + redFlagLength;
+        }
+        long[] kgrams = new long[kgramCount];
+        for (int k = 0; k < kgramCount; k++)
+            kgrams[k] = index.getLong(pos + k * 8);
+        return new Entry(userName, key, codeHash, kgrams, redFlags);
+    }
+
+    private String decodeString(int pos, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+            bytes[i] = index.get(pos + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // Compiling
+    ////////////////////////////////////////////////////////////////////
+
+    // Hash settings baked into the index - a change means the fingerprints are stale
+    private static int settings() {
+        return (PracticeItGrader.ifNormalizeCode ? 1 << 16 : 0) | Winnower.K << 8 | Winnower.WINDOW;
+    }
+
+    private static boolean isCurrent(ByteBuffer mapped, long length, long checksum) {
+        return mapped.getInt(0) == MAGIC && mapped.getInt(4) == VERSION
+                && mapped.getLong(8) == length && mapped.getLong(16) == checksum
+                && mapped.getInt(24) == settings()
+                && mapped.capacity() >= slot(mapped.getInt(28));
+    }
+
+    private static long checksum(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * Parses the source, writes the index and returns it
+     *   if the index can't be written the corpus is still used from memory this run
+     */
+    private static CheaterCorpus compile(Path source, Path indexPath, long length, long checksum) throws IOException {
+        List<Entry> entries = parse(source);
+        entries.sort(Comparator.comparingInt(e -> e.key)); // stable - file order kept within a problem
+
+        // encode strings first to know the size
+        byte[][] users = new byte[entries.size()][];
+        byte[][][] redFlags = new byte[entries.size()][][];
+        long size = slot(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            users[i] = e.userName.getBytes(StandardCharsets.UTF_8);
+            size += 8 + users[i].length + 8L * e.kgrams.length;
+            redFlags[i] = new byte[e.redFlags.length][];
+            for (int r = 0; r < e.redFlags.length; r++) {
+                redFlags[i][r] = e.redFlags[r].getBytes(StandardCharsets.UTF_8);
+                size += 4 + redFlags[i][r].length;
+            }
+        }
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Cheater corpus too large to index: " + source);
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, length);
+        buffer.putLong(16, checksum);
+        buffer.putInt(24, settings());
+        buffer.putInt(28, entries.size());
+        buffer.position(slot(entries.size()));
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            int slot = slot(i);
+            buffer.putInt(slot, e.key);
+            buffer.putInt(slot + 4, e.kgrams.length);
+            buffer.putLong(slot + 8, e.codeHash);
+            buffer.putLong(slot + 16, buffer.position());
+            buffer.putInt(users[i].length).put(users[i]);
+            buffer.putInt(redFlags[i].length);
+            for (byte[] redFlag : redFlags[i])
+                buffer.putInt(redFlag.length).put(redFlag);
+            for (long kgram : e.kgrams)
+                buffer.putLong(kgram);
+        }
+        buffer.flip();
+
+        // write to a temp file and move it in so a half written index is never read
+        try {
+            Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+            Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING);
+            if (PracticeItGrader.ifDebug)
+                System.out.printf("Compiled %d cheater entries from %s into %s\n", entries.size(), source, indexPath);
+        } catch (IOException e) {
+            System.out.printf("WARNING: could not write %s - %s\n", indexPath, e.getMessage());
+        }
+        buffer.rewind();
+        return new CheaterCorpus(buffer);
+    }
+
+    /**
+     * Reads every entry of a cheaters file, fingerprinting the code of each as a whole
+     *
+     * @param source
+     * @return entries in file order
+     * @throws IOException
+     */
+    static List<Entry> parse(Path source) throws IOException {
+        List<Entry> entries = new ArrayList<Entry>();
+        // UTF-8 with bad bytes replaced - a Scanner in the platform charset silently stops at the
+        //   first byte it can't decode (e.g. a Windows-1252 non-breaking space) and drops the rest
+        BufferedReader scCheaters = new BufferedReader(new InputStreamReader(Files.newInputStream(source), StandardCharsets.UTF_8));
+        String type = null;
+        int[] chapterVerse = null; // Used as flag for reading code
+        String userName = null;
+        StringBuilder code = new StringBuilder(); // fingerprinted as a whole like the student's code
+        List<String> redFlags = new ArrayList<String>();
+        while (true) {
+            String line = scCheaters.readLine();
+
+            //////////////////////////////////////////////////////////////
+            // Starting New Problem or end of file
+            //   "**" <username> <Exercise | Self-Check> <Chapter>:<Verse> <redFlag>...
+            //////////////////////////////////////////////////////////////
+            if (line == null || (line.length() >= 2 && line.indexOf("**") == 0)) {
+                ///////////////////////////////////
+                // End of code - store the entry
+                ///////////////////////////////////
+                if (chapterVerse != null) {
+                    Winnower winnower = new Winnower();
+                    long codeHash = Problem.computeCodeHash(code, 0, code.length(), winnower);
+                    entries.add(new Entry(userName, ProblemKey.of(type, chapterVerse[0], chapterVerse[1]),
+                            codeHash, winnower.finish(), redFlags.toArray(new String[0])));
+
+                    // debughash - enable to see why hash doesn't match student
+                    if (Problem.ifDebugHash && chapterVerse[0] == Problem.chapterDebugHash && chapterVerse[1] == Problem.problemDebugHash
+                            && type.equals("Exercise") && userName.equals(Problem.cheaterDebugHash))
+                        System.out.printf("cheater %s Ex %d.%d codehash %d\n", userName, chapterVerse[0], chapterVerse[1], codeHash);
+                    redFlags.clear();
+                    code.setLength(0);
+                    chapterVerse = null;
+                }
+                if (line == null)
+                    break;
+
+                // read fields for new problem
+                Scanner sc = new Scanner(line);
+                userName = sc.next();
+                type = sc.next();
+                // validate type
+                if (!type.equals("Self-Check") && !type.equals("Exercise")) {
+                    System.out.println("ERROR - expecting new problem, found " + userName + type);
+                }
+                chapterVerse = Problem.splitProblemNumber(sc.next());
+
+                sc.close();
+
+                ///////////////////////////////////
+                // redFlags are optional last arguments
+                ///////////////////////////////////
+                parseRedFlags(line, userName, redFlags);
+            } else {
+                // validate that we aren't missing a problem declaration
+                if (chapterVerse == null)
+                    System.out.printf("ERROR: expected new problem **username but found %s\n", line);
+                else
+                    code.append(line).append('\n');
+            } // end in code
+        } // end line
+        scCheaters.close();
+        return entries;
+    }
+
+    /**
+     * Reads the red flags after the problem number of a header line
+     *
+     * @param line - **userName Exercise 12:18 result.lastIndexOf "i + 1"
+     * @param userName - for errors
+     * @param redFlags - red flags are added here
+     */
+    private static void parseRedFlags(String line, String userName, List<String> redFlags) {
+        int pos = 0;
+        int len = line.length();
+        // skip userName, type & problem number
+        for (int field = 0; field < 3; field++) {
+            while (pos < len && Character.isWhitespace(line.charAt(pos)))
+                pos++;
+            while (pos < len && !Character.isWhitespace(line.charAt(pos)))
+                pos++;
+        }
+        while (true) {
+            while (pos < len && Character.isWhitespace(line.charAt(pos)))
+                pos++;
+            if (pos == len)
+                return;
+            int end;
+            if (line.charAt(pos) == '"') {
+                // grab everything up to the quote that ends the red flag
+                end = pos + 1;
+                while (end < len && !(line.charAt(end) == '"' && (end + 1 == len || Character.isWhitespace(line.charAt(end + 1)))))
+                    end++;
+                if (end == len)
+                    System.out.printf("ERROR: cheater %s missing end quote for red flag %s\n", userName, line);
+                redFlags.add(line.substring(pos + 1, end));
+                end++;
+            } else {
+                end = pos;
+                while (end < len && !Character.isWhitespace(line.charAt(end)))
+                    end++;
+                redFlags.add(line.substring(pos, end));
+            }
+            pos = end;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class CodeCache
+ *
+ * Results of each distinct Solution Code of one read of practice-it.csv, so code submitted over
+ *   and over (early exercises are often identical across a class) is tokenized, fingerprinted &
+ *   scanned for red flags only the first time it's seen
+ *
+ *   digest of the raw field  ->  codeHash, k-grams, red flag lines
+ *
+ * The field is addressed by a 128 bit Digest of its raw bytes (or chars) plus its length, hashed
+ *   8 bytes at a time - far cheaper than CodeFingerprint's tokenizer.  The code itself isn't kept,
+ *   so the memory held is one entry per distinct solution, and the k-grams of identical solutions
+ *   are one shared array (nothing changes them once Winnower.finish returns them).
+ *
+ * A digest is only comparable with digests from the same kind of CsvSource - MappedCsvReader hashes
+ *   the UTF-8 bytes as they are in the file, CsvReader the decoded chars - so a cache is made for
+ *   one readProblems and shared by all of its readers, whatever the thread
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class CodeCache {
+    private final ConcurrentHashMap<Digest, Entry> entries = new ConcurrentHashMap<Digest, Entry>();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * 128 bit hash & length of a raw field
+     */
+    static final class Digest {
+        private final long h1;
+        private final long h2;
+        private final long length;
+
+        private Digest(long h1, long h2, long length) {
+            this.h1 = h1;
+            this.h2 = h2;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Digest))
+                return false;
+            Digest d = (Digest) o;
+            return h1 == d.h1 && h2 == d.h2 && length == d.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) h1;
+        }
+    }
+
+    /**
+     * Builds a Digest from 64 bit words of the field, the last one zero padded
+     *   two independent multiply-rotate lanes, each finished with CodeFingerprint.fmix64
+     */
+    static final class Hasher {
+        private static final long C1 = 0x87C37B91114253D5L;
+        private static final long C2 = 0x4CF5AD432745937FL;
+        private static final long C3 = 0x9E3779B97F4A7C15L;
+        private static final long C4 = 0xC2B2AE3D27D4EB4FL;
+
+        private long h1;
+        private long h2;
+
+        /**
+         * @param ifQuoted - the field is quoted, so "" in its bytes is one quote
+         */
+        Hasher(boolean ifQuoted) {
+            h1 = ifQuoted ? C3 : C4;
+            h2 = ifQuoted ? C1 : C2;
+        }
+
+        void add(long word) {
+            h1 ^= Long.rotateLeft(word * C1, 31) * C2;
+            h1 = Long.rotateLeft(h1, 27) * 5 + 0x52DCE729;
+            h2 += Long.rotateLeft(word * C3, 33) * C4;
+            h2 = Long.rotateLeft(h2, 31) * 5 + 0x38495AB5;
+        }
+
+        /**
+         * @param length - bytes (or chars) added
+         */
+        Digest finish(long length) {
+            return new Digest(CodeFingerprint.fmix64(h1 ^ length), CodeFingerprint.fmix64(h2 ^ (length * C1)), length);
+        }
+    }
+
+    /**
+     * Digest of chars, 4 per word
+     *
+     * @param c - chars of the record
+     * @param start - first char of the field
+     * @param end - one past the last char
+     */
+    static Digest digest(char[] c, int start, int end) {
+        Hasher hasher = new Hasher(false);
+        int i = start;
+        for (; end - i >= 4; i += 4)
+            hasher.add(c[i] | (long) c[i + 1] << 16 | (long) c[i + 2] << 32 | (long) c[i + 3] << 48);
+        if (i < end) {
+            long word = 0;
+            for (int shift = 0; i < end; i++, shift += 16)
+                word |= (long) c[i] << shift;
+            hasher.add(word);
+        }
+        return hasher.finish(end - start);
+    }
+
+    /**
+     * What's known about one distinct Solution Code - never changed once in the cache
+     */
+    static final class Entry {
+        final long codeHash;
+        final long[] kgrams;           // null if it was never needed (not an assigned exercise)
+        final RedFlagScanner scanner;  // scanner of redFlagLines, null if never scanned
+        final int[] redFlagLines;      // RedFlagScanner.countLines
+
+        Entry(long codeHash, long[] kgrams, RedFlagScanner scanner, int[] redFlagLines) {
+            this.codeHash = codeHash;
+            this.kgrams = kgrams;
+            this.scanner = scanner;
+            this.redFlagLines = redFlagLines;
+        }
+
+        /**
+         * This entry plus the results of another submission of the same code
+         *   k-grams already here are kept (so they stay shared), red flags are of the latest scanner
+         *
+         * @param kgrams - null if not computed
+         * @param scanner - null if not scanned
+         * @param redFlagLines - of scanner
+         * @return this if there's nothing new
+         */
+        Entry with(long[] kgrams, RedFlagScanner scanner, int[] redFlagLines) {
+            boolean ifNewKGrams = this.kgrams == null && kgrams != null;
+            boolean ifNewScanner = scanner != null && scanner != this.scanner;
+            if (!ifNewKGrams && !ifNewScanner)
+                return this;
+            return new Entry(codeHash, ifNewKGrams ? kgrams : this.kgrams,
+                    ifNewScanner ? scanner : this.scanner, ifNewScanner ? redFlagLines : this.redFlagLines);
+        }
+    }
+
+    /**
+     * Results of an identical field seen earlier
+     *
+     * @param digest - CsvSource.fieldDigest of the Solution Code
+     * @return null if it hasn't been seen
+     */
+    public Entry get(Digest digest) {
+        Entry entry = entries.get(digest);
+        if (entry != null)
+            hits.increment();
+        return entry;
+    }
+
+    /**
+     * Keeps the results of a field - replaces what was there, so put the results already known too
+     *
+     * @param digest - CsvSource.fieldDigest of the Solution Code
+     * @param entry
+     */
+    public void put(Digest digest, Entry entry) {
+        entries.put(digest, entry);
+    }
+
+    /**
+     * Number of distinct solutions seen
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Number of lookups that found an earlier identical solution
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+}
@@ -0,0 +1,274 @@
+import java.util.*;
+
+/**
+ * Class CodeFingerprint
+ *
+ * 64 bit fingerprint of Java source code
+ *
+ * Replaces the sum of String.hashCode() of each whitespace separated token, which didn't
+ *   care about token order, collided easily (32 bits) and counted "x=1;" and "x = 1 ;" as different code.
+ *   Here the code is tokenized the way Java would see it - comments & whitespace are dropped,
+ *   identifiers, numbers, string & char literals are whole tokens and every other char is an
+ *   operator token - and the tokens are combined with a polynomial rolling hash so order matters
+ *
+ *   int x = 1; // one       and      int x=1;
+ *
+ *   both fingerprint as  int  x  =  1  ;
+ *
+ * With ifNormalize every identifier that isn't a keyword is the same token and so is every
+ *   literal of the same kind, so renaming variables or changing strings doesn't hide a copy
+ *
+ * Chars are fed one at a time (add) so the fingerprint can be computed straight from a char
+ *   buffer or from UTF-8 bytes as they're decoded - nothing is allocated per token.
+ *   An object can be reused, finish() resets it
+ *
+ *   CodeFingerprint fp = new CodeFingerprint(false);
+ *   long hash = fp.add(code, 0, code.length()).finish();
+ *
+ * A Winnower can also be fed the tokens (identifiers normalized) to get k-gram fingerprints in the same pass
+ *
+ * A fingerprint of 0 means there was no code
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class CodeFingerprint {
+    // token kinds & states
+    private static final int NONE = 0, IDENT = 1, NUMBER = 2, STRING = 3, CHAR = 4, OPERATOR = 5,
+            LINE_COMMENT = 6, BLOCK_COMMENT = 7;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long ROLLING_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private static final String[] KEYWORDS = {
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+        "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+        "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+        "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp", "super",
+        "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void", "volatile", "while",
+        "var", "true", "false", "null"
+    };
+    // identifier token hash of each keyword, sorted for binarySearch
+    private static final long[] KEYWORD_HASHES = new long[KEYWORDS.length];
+    static {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            long h = start(IDENT);
+            for (int j = 0; j < KEYWORDS[i].length(); j++)
+                h = mix(h, KEYWORDS[i].charAt(j));
+            KEYWORD_HASHES[i] = h;
+        }
+        Arrays.sort(KEYWORD_HASHES);
+    }
+
+    private final boolean ifNormalize;
+    private Winnower winnower; // also gets the tokens with identifiers normalized, may be null
+    private int state = NONE;
+    private boolean ifSlash;  // '/' in code - may start a comment
+    private boolean ifStar;   // '*' in a block comment - may end it
+    private boolean ifEscape; // '\' in a string or char literal
+    private long tokenHash;
+    private long hash;
+    private int tokens;
+
+    /**
+     * @param ifNormalize - true to treat all identifiers (except keywords) as one token and
+     *                      all literals of a kind as one token
+     */
+    public CodeFingerprint(boolean ifNormalize) {
+        this.ifNormalize = ifNormalize;
+    }
+
+    /**
+     * Fingerprint of already unescaped code
+     *
+     * @param code - chars to hash, may span many lines
+     * @param start - first char
+     * @param end - one past the last char
+     * @param ifNormalize - see CodeFingerprint(boolean)
+     */
+    public static long of(CharSequence code, int start, int end, boolean ifNormalize) {
+        return of(code, start, end, ifNormalize, null);
+    }
+
+    /**
+     * Fingerprint of already unescaped code, also feeding the winnower
+     *
+     * @param winnower - gets the tokens with identifiers normalized, may be null
+     */
+    public static long of(CharSequence code, int start, int end, boolean ifNormalize, Winnower winnower) {
+        return new CodeFingerprint(ifNormalize).setWinnower(winnower).add(code, start, end).finish();
+    }
+
+    /**
+     * Feeds the tokens of the following code to a Winnower as well, identifiers normalized
+     *
+     * @param winnower - null for none
+     * @return this
+     */
+    public CodeFingerprint setWinnower(Winnower winnower) {
+        this.winnower = winnower;
+        return this;
+    }
+
+    /**
+     * Feeds chars, surrogate pairs are fed as one code point
+     *
+     * @param code
+     * @param start - first char
+     * @param end - one past the last char
+     * @return this
+     */
+    public CodeFingerprint add(CharSequence code, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = code.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(code.charAt(i + 1)))
+                add(Character.toCodePoint(c, code.charAt(++i)));
+            else
+                add(c);
+        }
+        return this;
+    }
+
+    /**
+     * Feeds the next code point of the code
+     *
+     * @param c - code point
+     * @return this
+     */
+    public CodeFingerprint add(int c) {
+        switch (state) {
+        case LINE_COMMENT:
+            if (c == '\n')
+                state = NONE;
+            return this;
+        case BLOCK_COMMENT:
+            if (ifStar && c == '/')
+                state = NONE;
+            ifStar = c == '*';
+            return this;
+        case STRING:
+        case CHAR:
+            tokenHash = mix(tokenHash, c);
+            if (ifEscape)
+                ifEscape = false;
+            else if (c == '\\')
+                ifEscape = true;
+            else if (c == (state == STRING ? '"' : '\'') || c == '\n') // unterminated literal ends with the line
+                endToken();
+            return this;
+        case IDENT:
+            if (Character.isJavaIdentifierPart(c)) {
+                tokenHash = mix(tokenHash, c);
+                return this;
+            }
+            endToken();
+            break;
+        case NUMBER:
+            // 0x1F, 1_000, 1.5e3, 10L
+            if (Character.isLetterOrDigit(c) || c == '.' || c == '_') {
+                tokenHash = mix(tokenHash, c);
+                return this;
+            }
+            endToken();
+            break;
+        }
+
+        // between tokens
+        if (ifSlash) {
+            ifSlash = false;
+            if (c == '/') {
+                state = LINE_COMMENT;
+                return this;
+            }
+            if (c == '*') {
+                state = BLOCK_COMMENT;
+                ifStar = false;
+                return this;
+            }
+            operator('/');
+        }
+        if (Character.isWhitespace(c))
+            return this;
+        if (c == '/')
+            ifSlash = true;
+        else if (c >= '0' && c <= '9')
+            startToken(NUMBER, c);
+        else if (Character.isJavaIdentifierStart(c))
+            startToken(IDENT, c);
+        else if (c == '"')
+            startToken(STRING, c);
+        else if (c == '\'')
+            startToken(CHAR, c);
+        else
+            operator(c);
+        return this;
+    }
+
+    /**
+     * Ends the code and returns its fingerprint, then starts over
+     *
+     * @return 64 bit fingerprint or 0 if there were no tokens
+     */
+    public long finish() {
+        if (state == IDENT || state == NUMBER || state == STRING || state == CHAR)
+            endToken();
+        if (ifSlash)
+            operator('/');
+        long result = 0;
+        if (tokens != 0) {
+            result = fmix64(hash ^ tokens);
+            if (result == 0)
+                result = 1;
+        }
+        state = NONE;
+        ifSlash = ifStar = ifEscape = false;
+        hash = 0;
+        tokens = 0;
+        return result;
+    }
+
+    private void startToken(int kind, int c) {
+        state = kind;
+        ifEscape = false;
+        tokenHash = mix(start(kind), c);
+    }
+
+    private void operator(int c) {
+        tokenHash = mix(start(OPERATOR), c);
+        state = OPERATOR;
+        endToken();
+    }
+
+    private void endToken() {
+        // the winnower always gets identifiers normalized but literals as is - in early chapters
+        //   the strings printed are the whole program
+        long identifier = tokenHash;
+        if (state == IDENT && Arrays.binarySearch(KEYWORD_HASHES, tokenHash) < 0)
+            identifier = start(IDENT);
+        if (winnower != null)
+            winnower.addToken(identifier);
+        long normalized = state == IDENT || state == OPERATOR ? identifier : start(state);
+        hash = hash * ROLLING_MULTIPLIER + (ifNormalize ? normalized : tokenHash);
+        tokens++;
+        state = NONE;
+    }
+
+    // FNV-1a over the code points of a token, seeded by the kind of token
+    private static long start(int kind) {
+        return (FNV_OFFSET ^ kind) * FNV_PRIME;
+    }
+
+    private static long mix(long h, int c) {
+        return (h ^ c) * FNV_PRIME;
+    }
+
+    // MurmurHash3 finalizer - spreads the bits of the rolling hash
+    static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85A53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
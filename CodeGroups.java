@@ -0,0 +1,124 @@
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Class CodeGroups
+ *
+ * Finds groups of users who submitted the same code for a problem
+ *
+ * Replaces PracticeItGrader.findCommonFlags which sorted and then called ArrayList.remove in a loop.
+ *   Here the users are bucketed by code hash in one pass through an open addressing multimap
+ *   keyed by the primitive 64 bit hash - each bucket is a chain of positions through a next[] array,
+ *   so there is no boxing and no sorting
+ *
+ *   input  - [john=1, mary=2, phil=3, doug=2, jo=1, jerry=2]
+ *   output - [[john, jo], [mary, doug, jerry]]
+ *
+ * Groups come out in order of their first user and users keep their map order
+ *   A hash of 0 means there was no code and is never grouped
+ *   Groups of only ** known cheaters (CheaterCorpus) have no student in them and are left out
+ *
+ * Version 2.1 - 10/18/26 initial version
+ *                      groups without a student left out
+ */
+class CodeGroups {
+
+    /**
+     * Groups users with the same code hash for one problem
+     *
+     * @param codeHashes - map of <UserName, codeHash>
+     * @return list of groups of 2 or more user names, at least one of them a student
+     */
+    public static List<List<String>> findDuplicates(Map<String, Long> codeHashes) {
+        int n = codeHashes.size();
+        String[] names = new String[n];
+        long[] hashes = new long[n];
+        int i = 0;
+        for (Map.Entry<String, Long> entry : codeHashes.entrySet()) {
+            names[i] = entry.getKey();
+            hashes[i] = entry.getValue() == null ? 0 : entry.getValue();
+            i++;
+        }
+
+        List<List<String>> groups = new ArrayList<List<String>>();
+        for (int[] group : findDuplicates(hashes, n)) {
+            List<String> groupNames = new ArrayList<String>(group.length);
+            boolean ifStudent = false;
+            for (int index : group) {
+                groupNames.add(names[index]);
+                ifStudent |= !names[index].startsWith("**");
+            }
+            if (ifStudent)
+                groups.add(groupNames);
+        }
+        return groups;
+    }
+
+    /**
+     * Groups users with the same code hash for every problem at once, one problem per task
+     *   on the common ForkJoinPool.  The maps are only read.
+     *
+     * @param codeHashes - map of <UserName, codeHash> for each problem
+     * @return groups for each problem, in the same order
+     */
+    public static List<List<List<String>>> findAllDuplicates(List<Map<String, Long>> codeHashes) {
+        return IntStream.range(0, codeHashes.size())
+                .parallel()
+                .mapToObj(index -> findDuplicates(codeHashes.get(index)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Buckets positions by hash in one pass
+     *
+     * @param hashes - code hash of each user
+     * @param length - number of hashes used
+     * @return positions in hashes of each group of 2 or more, 0 hashes skipped
+     */
+    public static List<int[]> findDuplicates(long[] hashes, int length) {
+        // open addressing table of hash -> first position, at most half full
+        int capacity = Integer.highestOneBit(Math.max(4, length * 2 - 1)) << 1;
+        int mask = capacity - 1;
+        int[] table = new int[capacity]; // first position + 1, 0 = empty
+        int[] next = new int[length];    // next position with the same hash or -1
+        int[] last = new int[length];    // last position of a group, valid at the first position
+        int[] count = new int[length];   // size of a group, valid at the first position
+        int[] firsts = new int[length];  // first positions in order of appearance
+        int groupCount = 0;
+
+        for (int i = 0; i < length; i++) {
+            long hash = hashes[i];
+            if (hash == 0)
+                continue;
+            next[i] = -1;
+            int slot = (int) (hash * 0x9E3779B97F4A7C15L >>> 32) & mask;
+            while (table[slot] != 0 && hashes[table[slot] - 1] != hash)
+                slot = (slot + 1) & mask;
+            if (table[slot] == 0) {
+                // new hash
+                table[slot] = i + 1;
+                last[i] = i;
+                count[i] = 1;
+                firsts[groupCount++] = i;
+            } else {
+                int first = table[slot] - 1;
+                next[last[first]] = i;
+                last[first] = i;
+                count[first]++;
+            }
+        }
+
+        List<int[]> groups = new ArrayList<int[]>();
+        for (int g = 0; g < groupCount; g++) {
+            int first = firsts[g];
+            if (count[first] < 2)
+                continue;
+            int[] group = new int[count[first]];
+            int k = 0;
+            for (int i = first; i != -1; i = next[i])
+                group[k++] = i;
+            groups.add(group);
+        }
+        return groups;
+    }
+}
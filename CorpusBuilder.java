@@ -0,0 +1,409 @@
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+/**
+ * Class CorpusBuilder
+ *
+ * Builds the cheaters file (see CheaterCorpus for the format) from a folder of scraped GitHub repositories
+ *
+ *   Github Cheaters/<cheater>/<chapter folder>/<ProblemName>.java
+ *
+ * or the same folder zipped (GitHub Cheaters.zip) - the zip is opened as a zip FileSystem and its entries
+ *   are read & stripped of comments in memory, nothing is extracted to disk
+ *
+ * Each repository is walked (Files.walk) and converted on its own task on the common ForkJoinPool.
+ *   The file names are matched to BJP problems through a (chapter, lower case name) hash index
+ *   instead of a scan of every problem per file.
+ *
+ * Refreshing a big corpus mostly finds the same repositories, so the text made for each repository
+ *   is kept in a cache file next to the output along with a stamp of its files' paths, sizes &
+ *   modified times.  A repository whose stamp hasn't changed isn't read again, its messages are
+ *   printed again from the cache.  Which files match a problem depends on the BJP problem names
+ *   too, so the cache also holds a stamp of them - when they change every repository is converted
+ *   again.
+ *
+ *   CorpusBuilder builder = new CorpusBuilder(CorpusBuilder.readProblemNames(Paths.get("BJP Problem Names.csv")));
+ *   builder.build(Paths.get("..", "Github Cheaters"), Paths.get("Cheaters Generated.txt"));
+ *
+ * Code is read & written as ISO-8859-1 so whatever bytes are in the source files are copied as is
+ *
+ * Version 2.1 - 10/18/26 initial version, replaces the File.listFiles loops of Cheaters.main
+ *                      readProblemNames reads the ProblemCatalog
+ *                      reads zipped corpora in place
+ *                      cache stamped with the problem names, keeps each repository's messages
+ */
+class CorpusBuilder {
+    private static final int CACHE_MAGIC = 0x50494342; // "PICB"
+    private static final int CACHE_VERSION = 2;
+    private static final Charset CODE_CHARSET = StandardCharsets.ISO_8859_1;
+    // Problems removed after BJP3 - not worth a warning
+    private static final List<String> KNOWN_BAD = Arrays.asList("Spiral", "CollegeAdmit", "swapPairs");
+
+    private final Map<String, Problem> problemsByName = new HashMap<String, Problem>();
+    private final long problemsStamp; // of problemsByName - the cache is only good for the same problems
+
+    /**
+     * The converted text of one repository
+     */
+    private static class Repository {
+        String name;
+        long stamp;     // paths, sizes & modified times of its files
+        String text;    // entries for the cheaters file
+        int entries;
+        String log;     // messages to print
+        boolean ifReused;
+    }
+
+    /**
+     * @param problems - BJP problems with names
+     */
+    public CorpusBuilder(List<Problem> problems) {
+        // a later problem with the same chapter & name wins, as it did in the old linear search
+        for (Problem p : problems)
+            problemsByName.put(nameKey(p.getChapter(), p.getName()), p);
+        problemsStamp = stamp(problemsByName);
+    }
+
+    /**
+     * Reads the BJP problem names
+     *
+     *   BJP4 Exercise 8.07: addTimeSpan
+     *
+     * @param csv - BJP Problem Names.csv
+     * @return problems with names
+     * @throws IOException
+     */
+    public static List<Problem> readProblemNames(Path csv) throws IOException {
+        List<Problem> problems = ProblemCatalog.load(csv).toProblems();
+        if (Cheaters.ifDebug) {
+            for (Problem p : problems)
+                System.out.println("Read BJP " + p + " " + p.getName());
+        }
+        return problems;
+    }
+
+    /**
+     * Finds a problem by chapter and name ignoring case
+     *
+     * @param chapter
+     * @param name - e.g. addTimeSpan
+     * @return problem or null
+     */
+    public Problem find(int chapter, String name) {
+        return problemsByName.get(nameKey(chapter, name));
+    }
+
+    private static String nameKey(int chapter, String name) {
+        return chapter + ":" + name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Writes the cheaters file for every repository in a folder or zip file, reusing the cached
+     *   text of the repositories that haven't changed
+     *
+     * @param source - folder of repositories, one per cheater, or a zip of it
+     * @param output - cheaters file to write, the cache is kept next to it
+     * @return number of problems written
+     * @throws IOException
+     */
+    public int build(Path source, Path output) throws IOException {
+        if (!Files.isRegularFile(source))
+            return buildTree(source, output);
+
+        // zip - read the entries where they are
+        try (FileSystem zip = FileSystems.newFileSystem(source, (ClassLoader) null)) {
+            return buildTree(zipRoot(zip), output);
+        }
+    }
+
+    /**
+     * Folder of repositories in a zip - the zip's only top folder (GitHub Cheaters/) if it has one
+     */
+    private static Path zipRoot(FileSystem zip) throws IOException {
+        Path root = zip.getRootDirectories().iterator().next();
+        List<Path> top;
+        try (Stream<Path> list = Files.list(root)) {
+            top = list.collect(Collectors.toList());
+        }
+        return top.size() == 1 && Files.isDirectory(top.get(0)) ? top.get(0) : root;
+    }
+
+    /**
+     * build for a folder of repositories on any FileSystem
+     */
+    private int buildTree(Path root, Path output) throws IOException {
+        if (!Files.isDirectory(root)) {
+            System.out.println("Can't read " + root + " directory");
+            return 0;
+        }
+        Path cachePath = cachePathFor(output);
+        Map<String, Repository> cache = readCache(cachePath, problemsStamp);
+
+        List<Path> repositories;
+        try (Stream<Path> list = Files.list(root)) {
+            repositories = list.sorted().collect(Collectors.toList());
+        }
+
+        List<Callable<Repository>> tasks = new ArrayList<Callable<Repository>>();
+        for (Path repository : repositories)
+            tasks.add(() -> convert(repository, cache.get(repository.getFileName().toString())));
+        List<Repository> converted = ParallelCsvParser.invokeAll(ForkJoinPool.commonPool(), tasks);
+
+        // write in repository order, the messages too
+        int entries = 0;
+        int reused = 0;
+        try (Writer out = Files.newBufferedWriter(output, CODE_CHARSET)) {
+            for (Repository repository : converted) {
+                System.out.print(repository.log);
+                if (repository.text == null)
+                    continue;
+                out.write(repository.text);
+                entries += repository.entries;
+                if (repository.ifReused)
+                    reused++;
+            }
+        }
+        writeCache(cachePath, problemsStamp, converted);
+        System.out.printf("%d repositories, %d unchanged, %d problems\n", converted.size(), reused, entries);
+        return entries;
+    }
+
+    /**
+     * Converts one repository, or reuses its cached text if its files haven't changed
+     */
+    private Repository convert(Path path, Repository cached) throws IOException {
+        Repository repository = new Repository();
+        repository.name = path.getFileName().toString();
+        StringBuilder log = new StringBuilder("Directory: " + repository.name + "\n");
+
+        // validate directory
+        if (!Files.isDirectory(path)) {
+            repository.log = log.append(String.format("ERROR %s not a directory\n", repository.name)).toString();
+            return repository;
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(path)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        repository.stamp = stamp(path, files);
+        if (cached != null && cached.stamp == repository.stamp) {
+            // the messages of its conversion, the same as converting it again would print
+            cached.ifReused = true;
+            return cached;
+        }
+
+        ////////////////////////////////////////////////////////////
+        // files are <chapter folder>/<ProblemName>.java - the chapter is the first number in the folder name
+        ////////////////////////////////////////////////////////////
+        StringBuilder text = new StringBuilder();
+        log.append("Chapters: ");
+        Path lastChapter = null;
+        for (Path file : files) {
+            Path relative = path.relativize(file);
+            if (relative.getNameCount() < 2) {
+                log.append(String.format("ERROR %s not a directory\n", relative));
+                continue;
+            }
+            Path chapter = relative.getName(0);
+            int chNum = chapterNumber(chapter.toString());
+            if (chNum == -1) {
+                if (!chapter.equals(lastChapter))
+                    log.append(String.format("ERROR %s has no chapter number ", chapter));
+                lastChapter = chapter;
+                continue;
+            }
+            if (!chapter.equals(lastChapter))
+                log.append(chNum + " ");
+            lastChapter = chapter;
+
+            // get problem name by stripping .JAVA
+            String fileName = file.getFileName().toString();
+            String problemName = fileName.indexOf('.') == -1 ? fileName : fileName.substring(0, fileName.indexOf('.'));
+            if (Cheaters.ifDebug)
+                System.out.printf("File %s problem %s\n", fileName, problemName);
+
+            // Find full problem number based on chapter & name
+            Problem currentProblem = find(chNum, problemName);
+
+            // Warn if we didn't match up to a problem
+            // Some problems were removed after BJP3
+            if (currentProblem == null) {
+                if (!KNOWN_BAD.contains(problemName))
+                    log.append(String.format("WARNING - failed to match problem name %s for cheater %s in Chapter %d\n", problemName, repository.name, chNum));
+                continue;
+            }
+            if (Cheaters.ifDebug)
+                System.out.printf("Matched %s to problem: %s\n", problemName, currentProblem);
+
+            // output header **<cheatername> <Exercise/Self-Check> <Chapter:Number>
+            text.append(String.format("**%s %s %d:%d", repository.name, currentProblem.getType(), currentProblem.getChapter(), currentProblem.getNumber()));
+            text.append(System.lineSeparator());
+            appendCode(text, file, currentProblem, repository.name, log);
+            repository.entries++;
+        }
+        log.append("\n");
+        repository.text = text.toString();
+        repository.log = log.toString();
+        return repository;
+    }
+
+    /**
+     * Copies the code of a file without its comments
+     */
+    private static void appendCode(StringBuilder text, Path file, Problem problem, String cheaterName, StringBuilder log) throws IOException {
+        boolean fInMultiline = false;
+        for (String line : Files.readAllLines(file, CODE_CHARSET)) {
+            // assume full line comment starts the line
+            if (line.startsWith("//"))
+                continue;
+
+            // Multiline comments generally start & end a line
+            if (line.startsWith("/*")) {
+                fInMultiline = true;
+                continue;
+            }
+            if (line.endsWith("*/")) {
+                if (!fInMultiline)
+                    log.append(String.format("ERROR: should be in comment **%s %s %d:%d %s\n", cheaterName, problem.getType(), problem.getChapter(), problem.getNumber(), problem.getName()));
+                fInMultiline = false;
+                continue;
+            }
+
+            // print code to output
+            if (!fInMultiline)
+                text.append(line).append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * First number in a chapter folder name - chapter-12, ch12, Chapter 12
+     *
+     * @return chapter or -1 if there's no number
+     */
+    static int chapterNumber(String chapterName) {
+        int index = 0;
+        int len = chapterName.length();
+        while (index < len && !Character.isDigit(chapterName.charAt(index)))
+            index++;
+        int end = index;
+        while (end < len && Character.isDigit(chapterName.charAt(end)))
+            end++;
+        return index == end ? -1 : Integer.parseInt(chapterName.substring(index, end));
+    }
+
+    /**
+     * Stamp of a repository's files - changes when a file is added, removed, resized or modified
+     */
+    private static long stamp(Path root, List<Path> files) throws IOException {
+        long stamp = files.size();
+        for (Path file : files) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            stamp = stamp * 0x9E3779B97F4A7C15L + root.relativize(file).toString().hashCode();
+            stamp = stamp * 0x9E3779B97F4A7C15L + attributes.size();
+            stamp = stamp * 0x9E3779B97F4A7C15L + attributes.lastModifiedTime().toMillis();
+        }
+        return CodeFingerprint.fmix64(stamp);
+    }
+
+    /**
+     * Stamp of the problems files are matched to - changes when a name, number or type does
+     */
+    private static long stamp(Map<String, Problem> problemsByName) {
+        long stamp = problemsByName.size();
+        for (String key : new TreeSet<String>(problemsByName.keySet())) {
+            Problem p = problemsByName.get(key);
+            stamp = stamp * 0x9E3779B97F4A7C15L + key.hashCode();
+            stamp = stamp * 0x9E3779B97F4A7C15L + (p.getType() + " " + p.getChapter() + ":" + p.getNumber()).hashCode();
+        }
+        return CodeFingerprint.fmix64(stamp);
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // Cache - stamp of the problems, then per repository: name, stamp, entries, messages, text
+    ////////////////////////////////////////////////////////////////////
+
+    /**
+     * Cheaters Generated.txt -> Cheaters Generated.cache
+     */
+    static Path cachePathFor(Path output) {
+        String name = output.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return output.resolveSibling((dot == -1 ? name : name.substring(0, dot)) + ".cache");
+    }
+
+    /**
+     * @param problemsStamp - of the problems now, a cache made for others is ignored
+     */
+    private static Map<String, Repository> readCache(Path cachePath, long problemsStamp) {
+        Map<String, Repository> cache = new HashMap<String, Repository>();
+        if (!Files.isReadable(cachePath))
+            return cache;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cachePath)))) {
+            if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION || in.readLong() != problemsStamp)
+                return cache;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Repository repository = new Repository();
+                repository.name = in.readUTF();
+                repository.stamp = in.readLong();
+                repository.entries = in.readInt();
+                repository.log = readString(in);
+                repository.text = readString(in);
+                cache.put(repository.name, repository);
+            }
+        } catch (IOException e) {
+            // a damaged cache only means everything is converted again
+            System.out.printf("WARNING: ignoring %s - %s\n", cachePath, e.getMessage());
+            cache.clear();
+        }
+        return cache;
+    }
+
+    private static void writeCache(Path cachePath, long problemsStamp, List<Repository> repositories) {
+        Path temp = cachePath.resolveSibling(cachePath.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeInt(CACHE_VERSION);
+                out.writeLong(problemsStamp);
+                int count = 0;
+                for (Repository repository : repositories) {
+                    if (repository.text != null)
+                        count++;
+                }
+                out.writeInt(count);
+                for (Repository repository : repositories) {
+                    if (repository.text == null)
+                        continue;
+                    out.writeUTF(repository.name);
+                    out.writeLong(repository.stamp);
+                    out.writeInt(repository.entries);
+                    writeString(out, repository.log);
+                    writeString(out, repository.text);
+                }
+            }
+            Files.move(temp, cachePath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.printf("WARNING: could not write %s - %s\n", cachePath, e.getMessage());
+        }
+    }
+
+    // UTF-8 with an int length - writeUTF stops at 64K
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
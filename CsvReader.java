@@ -0,0 +1,380 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Class CsvReader
+ *
+ * Streaming RFC-4180 reader for the PracticeIt CSV export (practice-it.csv)
+ *   quoted fields, embedded commas, doubled quotes ("" -> ") and multi-line fields
+ *   (the Solution Code column) are all handled by one character state machine
+ *
+ * The file is read through a FileChannel into a reused direct buffer and decoded in blocks,
+ *   so there is no String per line or per field.  Each record is unescaped into one reused
+ *   char array and the fields are handed out as CharSequence views over that array.
+ *
+ *   A view is only valid until the next call to next() - use fieldString() to keep a copy
+ *
+ *   CsvReader csv = new CsvReader(Paths.get("practice-it.csv"));
+ *   while (csv.next()) {
+ *       CharSequence user = csv.field(0);
+ *       ...
+ *   }
+ *
+ * Version 2.1 - 10/18/26 initial version, replaces Scanner/split parsing in Problem.readProblems
+ *                      int, date/time & Yes/No fields decoded in place (FieldDecoder)
+ *                      problem descriptors looked up in place (ProblemCatalog)
+ *                      fieldDigest of the decoded chars (CodeCache)
+ *                      content after a closing quote ignored & only a \r ending an unquoted field dropped,
+ *                        as MappedCsvReader does
+ */
+class CsvReader implements CsvSource {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private final CharsetDecoder decoder;
+    private boolean endOfInput; // channel is exhausted and decoder flushed
+
+    // Current record - unescaped chars of every field packed together
+    private char[] record = new char[4096];
+    private int recordLength;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+    private Field[] views = new Field[0];
+    private long recordNumber; // 1 based count of records read, header included
+
+    /**
+     * Opens the CSV file for streaming
+     *
+     * @param path - file to read, assumed UTF-8
+     * @throws IOException
+     */
+    public CsvReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Streams CSV records from any channel (e.g. an entry of a zip or a slice of a file)
+     *
+     * @param channel
+     */
+    public CsvReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        this.chars.flip(); // start empty
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Streams CSV records from a piece of a file that starts on a record
+     *
+     * @param channel
+     * @param recordsBefore - records in the file before the piece, so getRecordNumber counts from the file start
+     */
+    public CsvReader(ReadableByteChannel channel, long recordsBefore) {
+        this(channel);
+        this.recordNumber = recordsBefore;
+    }
+
+    /**
+     * Advances to the next record
+     *
+     * @return false at end of file
+     * @throws IOException
+     */
+    @Override
+    public boolean next() throws IOException {
+        recordLength = 0;
+        fieldCount = 0;
+
+        boolean inQuotes = false;
+        boolean quoteInQuotes = false; // just saw a quote inside a quoted field - either "" or the closing quote
+        boolean afterQuotes = false; // quoted field closed, anything up to the next , or line break is ignored
+        boolean anyChars = false;
+        startField();
+
+        while (true) {
+            if (!chars.hasRemaining() && !fill()) {
+                // end of file - a final record without a line break still counts
+                if (!anyChars)
+                    return false;
+                endField(afterQuotes || quoteInQuotes);
+                recordNumber++;
+                return true;
+            }
+            char c = chars.get();
+            anyChars = true;
+
+            if (inQuotes) {
+                if (quoteInQuotes) {
+                    quoteInQuotes = false;
+                    if (c == '"') {
+                        // "" inside quotes is a single literal quote
+                        append(c);
+                        continue;
+                    }
+                    // previous quote closed the field, fall through to handle c normally
+                    inQuotes = false;
+                    afterQuotes = true;
+                } else {
+                    if (c == '"')
+                        quoteInQuotes = true;
+                    else
+                        append(c);
+                    continue;
+                }
+            }
+
+            // outside quotes
+            if (c == ',') {
+                endField(afterQuotes);
+                afterQuotes = false;
+                startField();
+            } else if (c == '\n') {
+                endField(afterQuotes);
+                recordNumber++;
+                return true;
+            } else if (afterQuotes) {
+                // content after the closing quote is ignored, as MappedCsvReader does
+            } else if (c == '"' && recordLength == fieldStart[fieldCount]) {
+                inQuotes = true;
+            } else {
+                append(c);
+            }
+        }
+    }
+
+    /**
+     * Number of fields in the current record
+     */
+    @Override
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * 1 based number of the current record, header included
+     */
+    @Override
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * View of a field in the current record, no copy is made
+     *   valid until the next call to next()
+     *
+     * @param index - 0 based column
+     * @return
+     */
+    public CharSequence field(int index) {
+        return views[index];
+    }
+
+    /**
+     * Copy of a field that outlives the current record
+     *
+     * @param index - 0 based column
+     * @return
+     */
+    @Override
+    public String fieldString(int index) {
+        return new String(record, fieldStart[index], fieldEnd[index] - fieldStart[index]);
+    }
+
+    /**
+     * Compares a field to a String without creating a copy of the field
+     *
+     * @param index - 0 based column
+     * @param s
+     * @return
+     */
+    @Override
+    public boolean fieldEquals(int index, String s) {
+        int start = fieldStart[index];
+        int len = fieldEnd[index] - start;
+        if (len != s.length())
+            return false;
+        for (int i = 0; i < len; i++) {
+            if (record[start + i] != s.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Raw access for decoders that want to walk the chars of a field directly
+     *   chars of field i are buffer()[fieldStart(i)] .. buffer()[fieldEnd(i)-1]
+     */
+    public char[] buffer() {
+        return record;
+    }
+
+    public int fieldStart(int index) {
+        return fieldStart[index];
+    }
+
+    public int fieldEnd(int index) {
+        return fieldEnd[index];
+    }
+
+    @Override
+    public int fieldInt(int index) {
+        return FieldDecoder.parseInt(record, fieldStart[index], fieldEnd[index]);
+    }
+
+    @Override
+    public long fieldEpochSeconds(int index) {
+        return FieldDecoder.epochSeconds(record, fieldStart[index], fieldEnd[index]);
+    }
+
+    @Override
+    public boolean fieldYes(int index) {
+        return FieldDecoder.isYes(record, fieldStart[index], fieldEnd[index]);
+    }
+
+    @Override
+    public int fieldId(int index, ProblemCatalog catalog) {
+        return catalog.find(record, fieldStart[index], fieldEnd[index]);
+    }
+
+    @Override
+    public CodeCache.Digest fieldDigest(int index) {
+        return CodeCache.digest(record, fieldStart[index], fieldEnd[index]);
+    }
+
+    @Override
+    public long codeHash(int index, Winnower winnower) {
+        return Problem.computeCodeHash(views[index], 0, views[index].length(), winnower);
+    }
+
+    @Override
+    public int[] scanRedFlags(int index, RedFlagScanner scanner) {
+        return scanner.countLines(views[index], 0, views[index].length());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Quotes a field for writing back out as CSV - doubles any embedded quotes
+     *
+     * @param field - Hello "World"
+     * @return "Hello ""World"""
+     */
+    public static String quote(CharSequence field) {
+        StringBuilder sb = new StringBuilder(field.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"')
+                sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // Record building
+    ///////////////////////////////////////////////////////////////////
+
+    private void startField() {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = recordLength;
+    }
+
+    /**
+     * @param ifClosed - the field was quoted and its closing quote found
+     */
+    private void endField(boolean ifClosed) {
+        // unquoted field - drop the \r of a \r\n line ending (any other \r is kept, as MappedCsvReader does)
+        if (!ifClosed && recordLength > fieldStart[fieldCount] && record[recordLength - 1] == '\r')
+            recordLength--;
+        fieldEnd[fieldCount] = recordLength;
+        fieldCount++;
+        if (views.length < fieldCount) {
+            Field[] more = Arrays.copyOf(views, fieldStart.length);
+            for (int i = views.length; i < more.length; i++)
+                more[i] = new Field(i);
+            views = more;
+        }
+    }
+
+    private void append(char c) {
+        if (recordLength == record.length)
+            record = Arrays.copyOf(record, record.length * 2);
+        record[recordLength++] = c;
+    }
+
+    /**
+     * Refills the char buffer from the channel
+     *
+     * @return false if there is nothing left to read
+     * @throws IOException
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput)
+            return false;
+        chars.clear();
+        while (chars.position() == 0) {
+            int read = channel.read(bytes);
+            bytes.flip();
+            if (read == -1) {
+                decoder.decode(bytes, chars, true);
+                decoder.flush(chars);
+                endOfInput = true;
+                break;
+            }
+            decoder.decode(bytes, chars, false);
+            bytes.compact();
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    /**
+     * CharSequence view of one column of the current record
+     */
+    private class Field implements CharSequence {
+        private final int index;
+
+        Field(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return fieldEnd[index] - fieldStart[index];
+        }
+
+        @Override
+        public char charAt(int i) {
+            return record[fieldStart[index] + i];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(record, fieldStart[index] + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return fieldString(index);
+        }
+    }
+}
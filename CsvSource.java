@@ -0,0 +1,111 @@
+import java.io.*;
+
+/**
+ * Interface CsvSource
+ *
+ * Record by record access to practice-it.csv as needed by Problem.readProblems
+ *   CsvReader - streams and decodes the file through a buffered channel
+ *   MappedCsvReader - memory maps the file and works on the raw bytes
+ *
+ * Fields are only decoded when asked for, and the Solution Code is never copied -
+ *   it is hashed and checked for red flags where it sits
+ *
+ * Both give the same values for any file, malformed ones too (test/CsvSourceTest) - bad UTF-8 is
+ *   U+FFFD, content after a closing quote is ignored and only a \r ending an unquoted field is dropped
+ *
+ * Version 2.1 - 10/18/26 initial version, added memory mapped mode
+ *                      int, date/time & Yes/No fields decoded in place (FieldDecoder)
+ *                      problem descriptors looked up in place (ProblemCatalog)
+ *                      raw digest of a field for CodeCache
+ *                      same values from both for malformed files
+ */
+interface CsvSource extends Closeable {
+    /**
+     * Advances to the next record
+     *
+     * @return false at end of file
+     * @throws IOException
+     */
+    boolean next() throws IOException;
+
+    /**
+     * Number of fields in the current record
+     */
+    int fieldCount();
+
+    /**
+     * 1 based number of the current record, header included
+     */
+    long getRecordNumber();
+
+    /**
+     * Decoded copy of a field
+     *
+     * @param index - 0 based column
+     */
+    String fieldString(int index);
+
+    /**
+     * Compares a field to a String
+     *
+     * @param index - 0 based column
+     * @param s
+     */
+    boolean fieldEquals(int index, String s);
+
+    /**
+     * Decimal int field without copying it (FieldDecoder.parseInt)
+     *
+     * @param index - 0 based column
+     * @throws NumberFormatException
+     */
+    int fieldInt(int index);
+
+    /**
+     * "yyyy-MM-dd HH:mm:ss" field as epoch seconds without copying it (FieldDecoder.epochSeconds)
+     *
+     * @param index - 0 based column
+     * @throws java.time.format.DateTimeParseException
+     */
+    long fieldEpochSeconds(int index);
+
+    /**
+     * True if a Yes/No field is Yes (FieldDecoder.isYes)
+     *
+     * @param index - 0 based column
+     */
+    boolean fieldYes(int index);
+
+    /**
+     * Looks a field up in a ProblemCatalog without copying it
+     *
+     * @param index - 0 based column
+     * @param catalog
+     * @return catalog id or -1 if it's not there
+     */
+    int fieldId(int index, ProblemCatalog catalog);
+
+    /**
+     * CodeCache.Digest of a field's raw content without decoding it - equal fields have equal digests
+     *
+     * @param index - 0 based column
+     */
+    CodeCache.Digest fieldDigest(int index);
+
+    /**
+     * Problem.computeCodeHash of a field without copying it
+     *
+     * @param index - 0 based column
+     * @param winnower - also fed the tokens, identifiers normalized, may be null
+     */
+    long codeHash(int index, Winnower winnower);
+
+    /**
+     * RedFlagScanner.countLines of a field without copying it
+     *
+     * @param index - 0 based column
+     * @param scanner - red flags of the problem
+     * @return lines containing each red flag, in scanner.getRedFlags order
+     */
+    int[] scanRedFlags(int index, RedFlagScanner scanner);
+}
@@ -0,0 +1,501 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Class DatasetGenerator
+ *
+ * Writes a made up class's PracticeIt results at any scale so every stage of the grader can be
+ *   load tested offline and reproducibly - the same options & seed always give the same files
+ *
+ *   java DatasetGenerator students=20000 seed=3 out=load
+ *
+ *   practice-it.csv          - export in PracticeIt's format, one student at a time
+ *   Student Usernames.txt    - the class list
+ *   Assigned Problems.txt    - every problem generated, SC ... Ex ...
+ *   Planted Cheaters.txt     - what was copied from whom, to check the cheat checks against
+ *
+ * The problems are the ones in "BJP Problem Names.csv", optionally only some chapters or the first
+ *   few.  Each chapter is due a week after the one before.  Students have their own habits - how
+ *   early they start, how often they skip a problem, how many tries they need - and work in
+ *   evening sessions of a chapter at a time, a few minutes per self-check and longer per exercise.
+ *   Tries follow a geometric distribution with a long tail.
+ *
+ * Exercise code is a method named after the problem, its lines picked at random from a few dozen
+ *   shapes with the student's own variable names & literals, including strings with commas &
+ *   escaped quotes and comments, so honest students don't look alike.  Cheating is planted as
+ *
+ *   copy     - exact copy of an earlier student's exercise, handed in minutes after the previous problem
+ *   similar  - the copy with its variables renamed, a comment added & a line changed
+ *   ring     - a few students copying one of them (exact or similar) for a whole run of chapters
+ *
+ * Only a bounded sample of each problem's code is kept to copy from so memory doesn't grow with the class
+ *
+ * Version 2.1 - 10/18/26 initial version
+ *                      problem names from ProblemCatalog
+ */
+class DatasetGenerator {
+    static final String PROBLEM_NAMES = ProblemCatalog.PROBLEM_NAMES;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss", Locale.ENGLISH);
+    private static final int SAMPLE_SIZE = 32; // codes kept per problem to copy from
+
+    private static final String[] FIRST_NAMES = {"Ava", "Ben", "Chloe", "Diego", "Emma", "Farah", "Gabe", "Hana", "Ivan",
+        "Jia", "Kofi", "Lena", "Mateo", "Nina", "Omar", "Priya", "Quinn", "Rosa", "Sam", "Tariq", "Uma", "Victor",
+        "Wen", "Ximena", "Yusuf", "Zoe", "Mary Jo"};
+    private static final String[] LAST_NAMES = {"Nguyen", "Smith", "Garcia", "Kim", "Patel", "Johnson", "Lee", "Brown",
+        "Martinez", "Chen", "Davis", "Lopez", "Wilson", "Singh", "Taylor", "Hernandez", "Moore", "Ali", "Clark", "Wang"};
+    private static final String[] VARIABLES = {"count", "sum", "total", "index", "value", "result", "temp", "number",
+        "line", "word", "max", "min", "next", "prev", "len", "size", "x", "y", "k", "n2"};
+    private static final String[] STRINGS = {"Hello, world", "a, b, c", "\\\"quoted\\\"", "x = ", ", ", "The end.",
+        "*", "\\\\", "say \\\"hi\\\", then go", "tab\\there"};
+
+    /**
+     * One BJP problem
+     */
+    static class ProblemName {
+        final String descriptor; // BJP4 Exercise 8.07: addTimeSpan
+        final boolean ifSelfCheck;
+        final String number;     // 8.07, 3G.1, 5.11a as written
+        final int chapter;       // 3G -> 20
+        final String name;
+
+        ProblemName(String descriptor, boolean ifSelfCheck, String number, int chapter, String name) {
+            this.descriptor = descriptor;
+            this.ifSelfCheck = ifSelfCheck;
+            this.number = number;
+            this.chapter = chapter;
+            this.name = name;
+        }
+    }
+
+    private final List<ProblemName> problems;
+    private int students = 1000;
+    private int lines = 15;          // statements in an exercise's method
+    private int copyPercent = 3;     // exercises copied from an earlier student
+    private int similarPercent = 3;  // exercises copied then disguised
+    private int ringPercent = 2;     // students in a cheating ring
+    private long seed = 1;
+    private LocalDateTime termStart = LocalDateTime.of(2020, 8, 31, 0, 0, 0);
+
+    /**
+     * @param problems - problems to generate results for, in assignment order
+     */
+    public DatasetGenerator(List<ProblemName> problems) {
+        this.problems = problems;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<String, String>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals == -1) {
+                System.out.println("Usage: java DatasetGenerator [students=1000] [chapters=1-20] [problems=all] [lines=15]");
+                System.out.println("           [copy=3] [similar=3] [ring=2] [seed=1] [out=.]   (copy, similar & ring are percents)");
+                return;
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        List<ProblemName> names = readProblemNames(Paths.get(PROBLEM_NAMES));
+        names = select(names, options.get("chapters"), Integer.parseInt(options.getOrDefault("problems", "0")));
+        DatasetGenerator generator = new DatasetGenerator(names);
+        generator.setStudents(Integer.parseInt(options.getOrDefault("students", "1000")));
+        generator.setLines(Integer.parseInt(options.getOrDefault("lines", "15")));
+        generator.setCopyPercent(Integer.parseInt(options.getOrDefault("copy", "3")));
+        generator.setSimilarPercent(Integer.parseInt(options.getOrDefault("similar", "3")));
+        generator.setRingPercent(Integer.parseInt(options.getOrDefault("ring", "2")));
+        generator.setSeed(Long.parseLong(options.getOrDefault("seed", "1")));
+
+        Path folder = Paths.get(options.getOrDefault("out", "."));
+        Files.createDirectories(folder);
+        long start = System.nanoTime();
+        long records = generator.write(folder);
+        System.out.printf("%d students, %d problems, %d records, %.1f MB in %.1f s\n",
+                generator.students, names.size(), records,
+                Files.size(folder.resolve("practice-it.csv")) / (1024.0 * 1024), (System.nanoTime() - start) / 1e9);
+    }
+
+    public void setStudents(int students) {
+        this.students = students;
+    }
+
+    public void setLines(int lines) {
+        this.lines = lines;
+    }
+
+    public void setCopyPercent(int copyPercent) {
+        this.copyPercent = copyPercent;
+    }
+
+    public void setSimilarPercent(int similarPercent) {
+        this.similarPercent = similarPercent;
+    }
+
+    public void setRingPercent(int ringPercent) {
+        this.ringPercent = ringPercent;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public List<ProblemName> getProblems() {
+        return problems;
+    }
+
+    /**
+     * Reads "BJP Problem Names.csv"
+     *   BJP4 Exercise 8.07: addTimeSpan
+     *
+     * @param csv
+     * @return problems in file order
+     * @throws IOException
+     */
+    public static List<ProblemName> readProblemNames(Path csv) throws IOException {
+        ProblemCatalog catalog = ProblemCatalog.load(csv);
+        List<ProblemName> names = new ArrayList<ProblemName>();
+        for (int id = 0; id < catalog.size(); id++)
+            names.add(new ProblemName(catalog.getDescriptor(id), catalog.isSelfCheck(id), catalog.getNumber(id),
+                    catalog.getChapter(id), catalog.getName(id)));
+        return names;
+    }
+
+    /**
+     * Keeps the problems of some chapters and/or the first few
+     *
+     * @param names
+     * @param chapters - "1-9" or "3" or null for all (3G is chapter 20)
+     * @param limit - most problems kept, 0 for all
+     */
+    public static List<ProblemName> select(List<ProblemName> names, String chapters, int limit) {
+        int first = 0, last = Integer.MAX_VALUE;
+        if (chapters != null) {
+            String[] range = chapters.split("-");
+            first = Integer.parseInt(range[0]);
+            last = Integer.parseInt(range[range.length - 1]);
+        }
+        List<ProblemName> selected = new ArrayList<ProblemName>();
+        for (ProblemName name : names) {
+            if (name.chapter >= first && name.chapter <= last && (limit == 0 || selected.size() < limit))
+                selected.add(name);
+        }
+        return selected;
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // Writing
+    ////////////////////////////////////////////////////////////////////
+
+    /**
+     * A student's habits
+     */
+    private static class Habits {
+        double lateness;   // 0 starts a week early .. 1 starts the night it's due
+        int skipPercent;   // problems not attempted
+        double triesMean;  // mean tries for an exercise
+        int ring = -1;     // cheating ring or -1
+    }
+
+    /**
+     * Writes the four files into a folder
+     *
+     * @param folder
+     * @return records written to practice-it.csv
+     * @throws IOException
+     */
+    public long write(Path folder) throws IOException {
+        Random random = new Random(seed);
+
+        // chapters in the order they're assigned, each due a week after the last
+        Map<Integer, LocalDateTime> deadlines = new LinkedHashMap<Integer, LocalDateTime>();
+        for (ProblemName name : problems) {
+            if (!deadlines.containsKey(name.chapter))
+                deadlines.put(name.chapter, termStart.plusDays(7L * (deadlines.size() + 1)).minusSeconds(1));
+        }
+        List<Integer> chapters = new ArrayList<Integer>(deadlines.keySet());
+
+        // rings of 2-4 students next to each other, copying the first one for a run of chapters
+        int ringStudents = students * ringPercent / 100;
+        List<int[]> rings = new ArrayList<int[]>(); // first chapter index, last chapter index
+        List<String> userNames = userNames(random);
+        Habits[] habits = new Habits[students];
+        for (int s = 0; s < students; s++) {
+            habits[s] = new Habits();
+            habits[s].lateness = random.nextDouble();
+            habits[s].skipPercent = random.nextInt(25);
+            habits[s].triesMean = 1.5 + random.nextDouble() * 3;
+        }
+        for (int s = 0; s + 1 < students && ringStudents > 1; ) {
+            int size = Math.min(2 + random.nextInt(3), ringStudents);
+            if (random.nextInt(20) == 0 && s + size <= students) {
+                int firstChapter = random.nextInt(chapters.size());
+                rings.add(new int[] {firstChapter, Math.min(chapters.size() - 1, firstChapter + random.nextInt(4))});
+                for (int m = 0; m < size; m++)
+                    habits[s + m].ring = rings.size() - 1;
+                ringStudents -= size;
+                s += size;
+            } else
+                s++;
+        }
+
+        Map<String, List<String>> samples = new HashMap<String, List<String>>();     // problem -> codes
+        Map<String, List<String>> sampleUsers = new HashMap<String, List<String>>(); // problem -> their users
+        Map<String, String> ringCode = new HashMap<String, String>();   // ring + problem -> leader's code
+        Map<String, String> ringLeader = new HashMap<String, String>();
+        long records = 0;
+        try (PrintWriter csv = writer(folder.resolve("practice-it.csv"));
+                PrintWriter planted = writer(folder.resolve("Planted Cheaters.txt"))) {
+            csv.print("\"Username\",\"Last\",\"First\",\"Problem\",\"Solved?\",\"Date/Time\",\"Tries\",\"Solution Code\"\n");
+            for (int s = 0; s < students; s++) {
+                Habits habit = habits[s];
+                String userName = userNames.get(s);
+                String[] name = studentName(s);
+                int chapterIndex = -1;
+                int lastChapter = Integer.MIN_VALUE;
+                LocalDateTime time = null;
+                for (ProblemName problem : problems) {
+                    if (problem.chapter != lastChapter) {
+                        // new session for each chapter - days before it's due, in the evening
+                        lastChapter = problem.chapter;
+                        chapterIndex = chapters.indexOf(problem.chapter);
+                        double daysEarly = (1 - habit.lateness) * 6 * random.nextDouble() + random.nextGaussian() * 0.3;
+                        time = deadlines.get(problem.chapter).minusHours(Math.round(daysEarly * 24)).withHour(0)
+                                .plusMinutes(Math.round(60 * Math.max(7, Math.min(23.5, 19 + random.nextGaussian() * 3))));
+                    }
+                    if (random.nextInt(100) < habit.skipPercent)
+                        continue;
+
+                    String key = problem.descriptor;
+                    boolean ifRing = habit.ring != -1 && !problem.ifSelfCheck
+                            && chapterIndex >= rings.get(habit.ring)[0] && chapterIndex <= rings.get(habit.ring)[1];
+                    String code = null;
+                    String kind = null;
+                    String from = null;
+                    int roll = random.nextInt(100);
+                    if (ifRing && ringCode.containsKey(habit.ring + key)) {
+                        from = ringLeader.get(habit.ring + key);
+                        kind = roll < 50 ? "ring copy" : "ring similar";
+                        code = roll < 50 ? ringCode.get(habit.ring + key) : disguise(ringCode.get(habit.ring + key), random);
+                    } else if (!problem.ifSelfCheck && roll < copyPercent + similarPercent && samples.containsKey(key)) {
+                        List<String> sample = samples.get(key);
+                        int pick = random.nextInt(sample.size());
+                        from = sampleUsers.get(key).get(pick);
+                        kind = roll < copyPercent ? "copy" : "similar";
+                        code = roll < copyPercent ? sample.get(pick) : disguise(sample.get(pick), random);
+                    } else
+                        code = problem.ifSelfCheck ? selfCheckCode(random) : exerciseCode(problem.name, random);
+
+                    int tries;
+                    if (from != null) {
+                        // copiers get it right away
+                        time = time.plusSeconds(30 + random.nextInt(90));
+                        tries = 1 + random.nextInt(2);
+                        planted.printf("%s %s %s %s from %s\n", kind, userName, problem.ifSelfCheck ? "SC" : "Ex",
+                                problem.number.replace('.', ':'), from);
+                    } else {
+                        tries = geometric(random, problem.ifSelfCheck ? 1.3 : habit.triesMean);
+                        double medianMinutes = problem.ifSelfCheck ? 2 : 12;
+                        time = time.plusSeconds(Math.round(60 * medianMinutes * Math.exp(random.nextGaussian() * 0.8)) + 20L * tries);
+                    }
+                    if (ifRing && !ringCode.containsKey(habit.ring + key)) {
+                        ringCode.put(habit.ring + key, code);
+                        ringLeader.put(habit.ring + key, userName);
+                    }
+                    if (!problem.ifSelfCheck && from == null)
+                        keepSample(samples, sampleUsers, key, code, userName, random);
+
+                    boolean ifSolved = random.nextInt(100) < (tries > 10 ? 60 : 92);
+                    csv.printf("%s,%s,%s,%s,\"%s\",\"%s\",\"%d\",%s\n",
+                            CsvReader.quote(userName), CsvReader.quote(name[1]), CsvReader.quote(name[0]),
+                            CsvReader.quote(problem.descriptor), ifSolved ? "Yes" : "No",
+                            time.format(DATE_FORMAT), tries, CsvReader.quote(code));
+                    records++;
+                }
+            }
+        }
+
+        try (PrintWriter list = writer(folder.resolve("Student Usernames.txt"))) {
+            for (int s = 0; s < students; s++) {
+                String[] name = studentName(s);
+                list.printf("%s %s %s\n", userNames.get(s), quoteName(name[0]), quoteName(name[1]));
+            }
+        }
+        try (PrintWriter assigned = writer(folder.resolve("Assigned Problems.txt"))) {
+            StringBuilder sc = new StringBuilder("SC");
+            StringBuilder ex = new StringBuilder("Ex");
+            for (ProblemName problem : problems)
+                (problem.ifSelfCheck ? sc : ex).append(' ').append(problem.number.replace('.', ':'));
+            assigned.println(sc + " " + ex);
+        }
+        return records;
+    }
+
+    private static PrintWriter writer(Path path) throws IOException {
+        return new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+
+    // Unique usernames like "nguyena12"
+    private List<String> userNames(Random random) {
+        List<String> userNames = new ArrayList<String>();
+        Set<String> used = new HashSet<String>();
+        for (int s = 0; s < students; s++) {
+            String[] name = studentName(s);
+            String base = (name[1] + name[0].charAt(0)).toLowerCase();
+            String userName = base + random.nextInt(100);
+            while (!used.add(userName))
+                userName = base + random.nextInt(100000);
+            userNames.add(userName);
+        }
+        return userNames;
+    }
+
+    // first, last
+    private static String[] studentName(int s) {
+        return new String[] {FIRST_NAMES[s % FIRST_NAMES.length], LAST_NAMES[(s / FIRST_NAMES.length) % LAST_NAMES.length]};
+    }
+
+    private static String quoteName(String name) {
+        return name.contains(" ") ? "\"" + name + "\"" : name;
+    }
+
+    // 1, 2, 3 ... with the given mean, capped at 99
+    private static int geometric(Random random, double mean) {
+        double p = 1 / mean;
+        int tries = 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - Math.min(p, 0.999)));
+        return Math.min(tries, 99);
+    }
+
+    // Reservoir sample of each problem's honest code
+    private static void keepSample(Map<String, List<String>> samples, Map<String, List<String>> sampleUsers,
+            String key, String code, String userName, Random random) {
+        List<String> sample = samples.computeIfAbsent(key, k -> new ArrayList<String>());
+        List<String> users = sampleUsers.computeIfAbsent(key, k -> new ArrayList<String>());
+        if (sample.size() < SAMPLE_SIZE) {
+            sample.add(code);
+            users.add(userName);
+        } else {
+            int pick = random.nextInt(SAMPLE_SIZE);
+            sample.set(pick, code);
+            users.set(pick, userName);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // Code
+    ////////////////////////////////////////////////////////////////////
+
+    private static String selfCheckCode(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return String.valueOf(random.nextInt(50));
+            case 1:
+                return "a, b, " + (char) ('c' + random.nextInt(5));
+            case 2:
+                return "System.out.println(\"He said, \\\"" + STRINGS[random.nextInt(STRINGS.length)] + "\\\"\");";
+            default:
+                return "line 1\nline \"2\", then 3\n" + random.nextInt(10);
+        }
+    }
+
+    /**
+     * A method named after the problem with the student's own statements
+     */
+    private String exerciseCode(String name, Random random) {
+        String[] vars = new String[4];
+        for (int i = 0; i < vars.length; i++)
+            vars[i] = VARIABLES[random.nextInt(VARIABLES.length)] + (i == 0 ? "" : i);
+        StringBuilder code = new StringBuilder();
+        if (random.nextInt(4) == 0)
+            code.append("// ").append(name).append(", by me\n");
+        code.append("public static int ").append(name).append("(int n, String s) {\n");
+        code.append("    int ").append(vars[0]).append(" = ").append(random.nextInt(10)).append(";\n");
+        int depth = 1;
+        for (int line = 0; line < lines; line++) {
+            String indent = "    ".repeat(depth);
+            String a = vars[random.nextInt(vars.length)];
+            String b = vars[random.nextInt(vars.length)];
+            int literal = random.nextInt(1000);
+            String text = STRINGS[random.nextInt(STRINGS.length)];
+            // a for or if too deep to nest closes a block instead, a close at the top level prints
+            int kind = random.nextInt(12);
+            if (kind == 0 && depth >= 4)
+                kind = 1;
+            if (kind == 1 && depth >= 4)
+                kind = 2;
+            if (kind == 2 && depth <= 1)
+                kind = 3;
+            switch (kind) {
+                case 0:
+                    code.append(indent).append("for (int i").append(depth).append(" = 0; i").append(depth)
+                            .append(" < n; i").append(depth).append("++) {\n");
+                    depth++;
+                    break;
+                case 1:
+                    code.append(indent).append("if (").append(a).append(" % ").append(literal + 2).append(" == 0) {\n");
+                    depth++;
+                    break;
+                case 2:
+                    code.append("    ".repeat(--depth)).append("}\n");
+                    break;
+                case 3:
+                    code.append(indent).append("System.out.println(\"").append(text).append("\" + ").append(a).append(");\n");
+                    break;
+                case 4:
+                    code.append(indent).append("int ").append(a).append(line).append(" = ").append(b).append(" * ")
+                            .append(literal).append(" + s.length();\n");
+                    break;
+                case 5:
+                    code.append(indent).append(a).append(" += s.indexOf(\"").append(text).append("\", ").append(literal).append(");\n");
+                    break;
+                case 6:
+                    code.append(indent).append("// ").append(text.replace("\\", "")).append(", step ").append(line).append('\n');
+                    break;
+                case 7:
+                    code.append(indent).append(a).append(" = Math.max(").append(a).append(", ").append(b).append(" - ")
+                            .append(literal).append(");\n");
+                    break;
+                case 8:
+                    code.append(indent).append("String t").append(line).append(" = s.substring(0, Math.min(s.length(), ")
+                            .append(literal % 10).append(")) + \"").append(text).append("\";\n");
+                    break;
+                case 9:
+                    code.append(indent).append("System.out.print(").append(a).append(" + \", \" + ").append(b).append(");\n");
+                    break;
+                case 10:
+                    code.append(indent).append(a).append(" = ").append(a).append(" * ").append(literal % 7 + 2).append(" % n;\n");
+                    break;
+                default:
+                    code.append(indent).append("char c").append(line).append(" = '").append((char) ('a' + literal % 26))
+                            .append("';\n");
+                    break;
+            }
+        }
+        while (depth > 1)
+            code.append("    ".repeat(--depth)).append("}\n");
+        code.append("    return ").append(vars[0]).append(";\n}");
+        return code.toString();
+    }
+
+    /**
+     * Copied code made to look different - variables renamed, a comment added, one line changed
+     */
+    private static String disguise(String code, Random random) {
+        String suffix = "_" + (char) ('a' + random.nextInt(26));
+        for (String variable : VARIABLES)
+            code = code.replaceAll("\\b(" + variable + "\\d?)\\b", "$1" + suffix);
+        String[] lines = code.split("\n", -1);
+        StringBuilder disguised = new StringBuilder("// my solution\n");
+        int changed = 1 + random.nextInt(Math.max(1, lines.length - 2));
+        for (int i = 0; i < lines.length; i++) {
+            if (i == changed && lines[i].trim().endsWith(";"))
+                disguised.append(lines[i], 0, lines[i].lastIndexOf(';')).append(" + 0;");
+            else
+                disguised.append(lines[i]);
+            if (i < lines.length - 1)
+                disguised.append('\n');
+        }
+        return disguised.toString();
+    }
+}
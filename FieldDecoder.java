@@ -0,0 +1,117 @@
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Class FieldDecoder
+ *
+ * Decodes the fixed layout fields of a practice-it.csv record straight from the reader's chars,
+ *   without a String, DateTimeFormatter or LocalDateTime per record
+ *
+ *   Date/Time  "2019-09-25 16:45:33"  -> epoch seconds (UTC, as SubmissionStore.toEpochSeconds)
+ *   Tries      "12"                   -> 12
+ *   Solved?    "Yes" / "No"           -> true / false
+ *
+ * Anything not in the expected layout (a wider year, a sign, an impossible day) is handed to
+ *   LocalDateTime.parse or Integer.parseInt so the results & errors stay exactly theirs
+ *
+ * Version 2.1 - 10/18/26 initial version, replaces the per-record parsing in Problem.parseRecord
+ */
+class FieldDecoder {
+    static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern ( "yyyy-MM-dd HH:mm:ss" , Locale.ENGLISH );
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    /**
+     * "yyyy-MM-dd HH:mm:ss" to seconds since 1970-01-01 00:00:00
+     *
+     * @param c - chars of the record
+     * @param start - first char of the field
+     * @param end - one past the last char
+     */
+    public static long epochSeconds(char[] c, int start, int end) {
+        if (end - start == 19 && c[start + 4] == '-' && c[start + 7] == '-' && c[start + 10] == ' '
+                && c[start + 13] == ':' && c[start + 16] == ':') {
+            int year = digits(c, start, 4);
+            int month = digits(c, start + 5, 2);
+            int day = digits(c, start + 8, 2);
+            int hour = digits(c, start + 11, 2);
+            int minute = digits(c, start + 14, 2);
+            int second = digits(c, start + 17, 2);
+            if (year >= 1 && month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(year, month)
+                    && hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60)
+                return epochDay(year, month, day) * 86400 + hour * 3600 + minute * 60 + second;
+        }
+        return epochSeconds(new String(c, start, end - start));
+    }
+
+    /**
+     * Any date/time LocalDateTime.parse takes as "yyyy-MM-dd HH:mm:ss" to epoch seconds
+     *
+     * @param field
+     * @throws java.time.format.DateTimeParseException
+     */
+    public static long epochSeconds(String field) {
+        return SubmissionStore.toEpochSeconds(LocalDateTime.parse(field, DATE_FORMAT));
+    }
+
+    /**
+     * Decimal int
+     *
+     * @param c - chars of the record
+     * @param start - first char of the field
+     * @param end - one past the last char
+     */
+    public static int parseInt(char[] c, int start, int end) {
+        // up to 9 digits can't overflow
+        if (end > start && end - start <= 9) {
+            int value = digits(c, start, end - start);
+            if (value >= 0)
+                return value;
+        }
+        return Integer.parseInt(new String(c, start, end - start));
+    }
+
+    /**
+     * True if the field starts with Y or y - "Yes"
+     *
+     * @param c - chars of the record
+     * @param start - first char of the field
+     * @param end - one past the last char
+     */
+    public static boolean isYes(char[] c, int start, int end) {
+        return end > start && (c[start] == 'Y' || c[start] == 'y');
+    }
+
+    /**
+     * Value of count decimal digits, -1 if any char isn't a digit
+     */
+    private static int digits(char[] c, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = c[i] - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        boolean ifLeap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return month == 2 && ifLeap ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date - counted from March so the leap day
+     *   is the last day of the year
+     */
+    static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;                                          // 0 .. 399
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1; // 0 .. 365
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
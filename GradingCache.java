@@ -0,0 +1,265 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Class GradingCache
+ *
+ * Keeps every parsed submission of practice-it.csv in practice-it.cache so the next run only has to
+ *   parse what's new.  Weekly exports are the previous export with more records on the end, so
+ *
+ *   same first parsedLength bytes (CRC32C)   -> cached submissions are replayed, only the rest is parsed
+ *   anything else (re-sorted, rows removed)  -> everything is parsed again, but a record with the same
+ *                                               username, problem, date/time & tries reuses its cached
+ *                                               code hash, fingerprints & red flags instead of rescanning
+ *
+ * The cache also holds a stamp of the settings the code results depend on - the hashing settings and
+ *   the assigned problems with their red flags.  If they changed nothing cached is used.
+ *
+ *   file  "PICG" version settings parsedLength checksum
+ *         users       - username, last, first
+ *         submissions - user, key, solved, time, tries, codeHash, kgrams, redFlagLines, redFlags
+ *
+ * A missing or damaged cache only means the export is parsed in full
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class GradingCache {
+    private static final int MAGIC = 0x50494347; // "PICG"
+    private static final int VERSION = 1;
+
+    private final Path cachePath;
+    private final long settings;
+    private long parsedLength;  // bytes of the export the submissions came from, ends on a record
+    private long checksum;      // CRC32C of those bytes
+    private final List<Submission> submissions = new ArrayList<Submission>();
+    private final Map<String, String[]> users = new LinkedHashMap<String, String[]>(); // username -> last, first
+    private Map<String, Submission> previous = Collections.emptyMap(); // rows of an export that didn't match
+
+    private GradingCache(Path cachePath, long settings) {
+        this.cachePath = cachePath;
+        this.settings = settings;
+    }
+
+    /**
+     * Loads the cache of an export, or an empty one if there's none or it can't be used
+     *
+     * @param source - practice-it.csv
+     * @param assignedProblems - their red flags are part of the settings stamp
+     * @return cache - if the export still starts with the cached bytes getParsedLength() is where to go on
+     *   parsing, otherwise it's 0 and previous() has the cached rows
+     */
+    public static GradingCache load(Path source, List<Problem> assignedProblems) {
+        GradingCache cache = new GradingCache(cachePathFor(source), settings(assignedProblems));
+        if (!Files.isReadable(cache.cachePath))
+            return cache;
+        try {
+            if (!cache.read())
+                return new GradingCache(cache.cachePath, cache.settings);
+            if (cache.parsedLength <= Files.size(source) && checksum(source, cache.parsedLength) == cache.checksum)
+                return cache;
+        } catch (IOException e) {
+            System.out.printf("WARNING: ignoring %s - %s\n", cache.cachePath, e.getMessage());
+            return new GradingCache(cache.cachePath, cache.settings);
+        }
+
+        // the export was rewritten - keep the rows so unchanged records needn't be rescanned
+        Map<String, Submission> previous = new HashMap<String, Submission>();
+        for (Submission sub : cache.submissions)
+            previous.put(rowKey(sub), sub);
+        GradingCache changed = new GradingCache(cache.cachePath, cache.settings);
+        changed.previous = previous;
+        return changed;
+    }
+
+    /**
+     * practice-it.csv -> practice-it.cache
+     */
+    static Path cachePathFor(Path source) {
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return source.resolveSibling((dot == -1 ? name : name.substring(0, dot)) + ".cache");
+    }
+
+    /**
+     * Offset parsing goes on from, 0 if the whole export has to be parsed
+     */
+    public long getParsedLength() {
+        return parsedLength;
+    }
+
+    /**
+     * Submissions already parsed, in file order
+     */
+    public List<Submission> getSubmissions() {
+        return submissions;
+    }
+
+    /**
+     * @return true if the user already has a submission - their LAST & FIRST are known
+     */
+    public boolean hasUser(String userName) {
+        return users.containsKey(userName);
+    }
+
+    /**
+     * Looks up the same record in the export the cache was built from
+     *
+     * @param sub - parsed except for the Solution Code
+     * @return the cached submission or null
+     */
+    public Submission previous(Submission sub) {
+        return previous.get(rowKey(sub));
+    }
+
+    /**
+     * Adds a newly parsed submission, LAST & FIRST must be filled in for a user not yet seen
+     *
+     * @param sub - not reused by the caller
+     */
+    public void add(Submission sub) {
+        if (!users.containsKey(sub.userName))
+            users.put(sub.userName, new String[] {sub.lastName, sub.firstName});
+        submissions.add(sub);
+    }
+
+    /**
+     * Writes the cache, a write error only costs the next run a full parse
+     *
+     * @param source - the export
+     * @param parsedLength - offset after the last submission added
+     */
+    public void save(Path source, long parsedLength) {
+        Path temp = cachePath.resolveSibling(cachePath.getFileName() + ".tmp");
+        try {
+            long checksum = checksum(source, parsedLength);
+            Map<String, Integer> userIds = new HashMap<String, Integer>();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(settings);
+                out.writeLong(parsedLength);
+                out.writeLong(checksum);
+                out.writeInt(users.size());
+                for (Map.Entry<String, String[]> user : users.entrySet()) {
+                    userIds.put(user.getKey(), userIds.size());
+                    out.writeUTF(user.getKey());
+                    writeString(out, user.getValue()[0]);
+                    writeString(out, user.getValue()[1]);
+                }
+                out.writeInt(submissions.size());
+                for (Submission sub : submissions) {
+                    out.writeInt(userIds.get(sub.userName));
+                    out.writeInt(sub.key);
+                    out.writeBoolean(sub.ifCompleted);
+                    out.writeLong(sub.time);
+                    out.writeInt(sub.tries);
+                    out.writeLong(sub.codeHash);
+                    out.writeInt(sub.kgrams == null ? -1 : sub.kgrams.length);
+                    if (sub.kgrams != null) {
+                        for (long kgram : sub.kgrams)
+                            out.writeLong(kgram);
+                    }
+                    out.writeInt(sub.redFlagLines);
+                    out.writeInt(sub.redFlags == null ? -1 : sub.redFlags.length);
+                    if (sub.redFlags != null) {
+                        for (String redFlag : sub.redFlags)
+                            out.writeUTF(redFlag);
+                    }
+                }
+            }
+            Files.move(temp, cachePath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.printf("WARNING: couldn't write %s - %s\n", cachePath, e.getMessage());
+        }
+    }
+
+    // false if the cache is for another version or other settings
+    private boolean read() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cachePath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != settings)
+                return false;
+            parsedLength = in.readLong();
+            checksum = in.readLong();
+            String[] userNames = new String[in.readInt()];
+            for (int i = 0; i < userNames.length; i++) {
+                userNames[i] = in.readUTF();
+                users.put(userNames[i], new String[] {readString(in), readString(in)});
+            }
+            boolean[] named = new boolean[userNames.length];
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Submission sub = new Submission();
+                int user = in.readInt();
+                sub.userName = userNames[user];
+                // the names go with the user's first submission, like a fresh parse
+                if (!named[user]) {
+                    named[user] = true;
+                    sub.lastName = users.get(sub.userName)[0];
+                    sub.firstName = users.get(sub.userName)[1];
+                }
+                sub.key = in.readInt();
+                sub.type = ProblemKey.type(sub.key);
+                sub.chapter = ProblemKey.chapter(sub.key);
+                sub.number = ProblemKey.number(sub.key);
+                sub.ifCompleted = in.readBoolean();
+                sub.time = in.readLong();
+                sub.tries = in.readInt();
+                sub.codeHash = in.readLong();
+                int kgrams = in.readInt();
+                if (kgrams >= 0) {
+                    sub.kgrams = new long[kgrams];
+                    for (int k = 0; k < kgrams; k++)
+                        sub.kgrams[k] = in.readLong();
+                }
+                sub.redFlagLines = in.readInt();
+                int redFlags = in.readInt();
+                if (redFlags >= 0) {
+                    sub.redFlags = new String[redFlags];
+                    for (int r = 0; r < redFlags; r++)
+                        sub.redFlags[r] = in.readUTF();
+                }
+                submissions.add(sub);
+            }
+        }
+        return true;
+    }
+
+    // Stamp of everything a submission's code results depend on
+    private static long settings(List<Problem> assignedProblems) {
+        long stamp = (PracticeItGrader.ifNormalizeCode ? 1 << 16 : 0) | Winnower.K << 8 | Winnower.WINDOW;
+        for (Problem problem : assignedProblems) {
+            stamp = CodeFingerprint.fmix64(stamp * 31 + ProblemKey.of(problem.getType(), problem.getChapter(), problem.getNumber()));
+            stamp = CodeFingerprint.fmix64(stamp * 31 + problem.getType().hashCode());
+            for (String redFlag : problem.getRedFlags())
+                stamp = CodeFingerprint.fmix64(stamp * 31 + redFlag.hashCode());
+        }
+        return stamp;
+    }
+
+    private static String rowKey(Submission sub) {
+        return sub.userName + '\t' + sub.key + '\t' + sub.time + '\t' + sub.tries;
+    }
+
+    // CRC32C of the first length bytes
+    private static long checksum(Path source, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            for (long pos = 0; pos < length; pos += Integer.MAX_VALUE)
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(length - pos, Integer.MAX_VALUE)));
+            return crc.getValue();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null)
+            out.writeUTF(s);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,309 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class IngestPipeline
+ *
+ * Reads practice-it.csv as a pipeline of stages so reading the disk, hashing the code and writing
+ *   "Encrypted Results.txt" all happen at once instead of one after the other
+ *
+ *   reader    - reads 1MB blocks of the file                          -> blocks queue
+ *   splitter  - cuts the blocks into batches of whole records         -> batches queue (of decoder Futures)
+ *               (StructuralIndex finds the record ends 64 bytes at a time)
+ *   decoders  - one per core, parse a batch's records - fields, code
+ *               hash, k-grams & red flags (Problem.parseRecord)
+ *   caller    - takes the batches in file order & adds the submissions -> writes queue
+ *   writer    - writes the encrypted records when ifEncrypt
+ *
+ * Every queue is bounded so a fast stage waits for a slow one - no more than a few MB of the file
+ *   are held however big it is.  A line break is the end of a record only outside quotes, which with
+ *   "" escaping is whenever an even number of quotes come before it (see ParallelCsvParser).
+ *
+ * Batches are added in file order, so the results (and the encrypted file) are the same as reading
+ *   sequentially
+ *
+ * Version 2.1 - 10/18/26 initial version
+ *                      record ends found by StructuralIndex
+ *                      decoders share one CodeCache
+ *                      threads leave their allocation for StageStats as they end
+ *                      stages end on a failure instead of waiting on a full queue
+ */
+class IngestPipeline {
+    // bytes per read & roughly per batch
+    static final int BLOCK_SIZE = 1 << 20;
+    // blocks read ahead of the splitter
+    private static final int BLOCKS_AHEAD = 4;
+    // encrypted batches waiting to be written
+    private static final int WRITES_AHEAD = 4;
+
+    private static final byte[] END = new byte[0];
+
+    /**
+     * Records of the file cut on record boundaries
+     */
+    private static class Batch {
+        final byte[] data;
+        final int length;
+        final long recordsBefore; // records in the file before this batch, header included
+        final boolean ifHeader;   // first batch - starts with the header
+
+        Batch(byte[] data, int length, long recordsBefore, boolean ifHeader) {
+            this.data = data;
+            this.length = length;
+            this.recordsBefore = recordsBefore;
+            this.ifHeader = ifHeader;
+        }
+    }
+
+    /**
+     * A decoded batch
+     */
+    private static class Parsed {
+        final List<Submission> subs = new ArrayList<Submission>();
+        byte[] encrypted; // records for "Encrypted Results.txt", null unless encrypting
+    }
+
+    private final Path source;
+    private final ProblemIndex assignedIndex;
+    private final CodeCache codes;
+    private final boolean ifEncrypt;
+    private final int decoderCount;
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    private Thread caller; // thread running read
+
+    /**
+     * @param source - practice-it.csv
+     * @param assignedIndex - assigned Problems - needed to watch for red flags, only read
+     * @param codes - results of each distinct Solution Code, may be null
+     * @param ifEncrypt - also write "Encrypted Results.txt"
+     */
+    IngestPipeline(Path source, ProblemIndex assignedIndex, CodeCache codes, boolean ifEncrypt) {
+        this.source = source;
+        this.assignedIndex = assignedIndex;
+        this.codes = codes;
+        this.ifEncrypt = ifEncrypt;
+        this.decoderCount = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Reads every record into the student list
+     *
+     * @param studentList - list of students we want to read problems for, all others ignored
+     * @param ifClassList - false if studentList is being built from the results
+     * @param encrypted - where the encrypted records go, null unless encrypting
+     * @throws IOException
+     */
+    public void read(StudentRegistry studentList, boolean ifClassList, OutputStream encrypted) throws IOException {
+        BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<byte[]>(BLOCKS_AHEAD);
+        BlockingQueue<Future<Parsed>> batches = new ArrayBlockingQueue<Future<Parsed>>(decoderCount * 2);
+        BlockingQueue<byte[]> writes = new ArrayBlockingQueue<byte[]>(WRITES_AHEAD);
+        caller = Thread.currentThread();
+        ExecutorService decoders = Executors.newFixedThreadPool(decoderCount, r -> daemon(r, "ingest-decoder"));
+
+        List<Thread> threads = new ArrayList<Thread>();
+        threads.add(stage(() -> readBlocks(blocks), "ingest-reader"));
+        threads.add(stage(() -> splitBatches(blocks, batches, decoders), "ingest-splitter"));
+        if (ifEncrypt)
+            threads.add(stage(() -> writeBatches(writes, encrypted), "ingest-writer"));
+        for (Thread thread : threads)
+            thread.start();
+
+        try {
+            ///////////////////////////////////////////////////////
+            // Aggregate - batches in file order, then tell the writer we're done
+            ///////////////////////////////////////////////////////
+            while (true) {
+                Future<Parsed> future = batches.take();
+                Parsed parsed = future.get();
+                if (parsed == null)
+                    break;
+                for (Submission sub : parsed.subs)
+                    Problem.addSubmission(studentList, ifClassList, sub);
+                if (ifEncrypt)
+                    writes.put(parsed.encrypted);
+            }
+            if (ifEncrypt) {
+                writes.put(END);
+                threads.get(threads.size() - 1).join();
+            }
+        } catch (InterruptedException e) {
+            // a failed stage interrupts us, otherwise someone wants us to stop
+            if (failure.get() == null) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("reading interrupted");
+            }
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, e.getCause());
+        } finally {
+            // stops the stages early if anything failed, otherwise they're already done
+            for (Thread thread : threads)
+                thread.interrupt();
+            decoders.shutdownNow();
+        }
+
+        Throwable cause = failure.get();
+        if (cause != null)
+            Thread.interrupted(); // clear a failed stage's interrupt
+        if (cause instanceof IOException)
+            throw (IOException) cause;
+        if (cause != null)
+            throw new RuntimeException(cause);
+    }
+
+    /**
+     * Reader stage - the whole file in blocks, then END
+     *   END only follows the whole file - if anything failed read is already stopping every stage,
+     *   and waiting to put it on a full queue nobody takes from would keep this thread forever
+     */
+    private void readBlocks(BlockingQueue<byte[]> blocks) throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (true) {
+                ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+                while (block.hasRemaining() && channel.read(block) != -1)
+                    ;
+                if (block.position() == 0)
+                    break;
+                blocks.put(block.position() == BLOCK_SIZE ? block.array() : Arrays.copyOf(block.array(), block.position()));
+                if (block.position() < BLOCK_SIZE)
+                    break;
+            }
+        }
+        blocks.put(END);
+    }
+
+    /**
+     * Splitter stage - hands each batch of whole records to a decoder, then a null batch
+     *   only after the last block, like readBlocks' END
+     */
+    private void splitBatches(BlockingQueue<byte[]> blocks, BlockingQueue<Future<Parsed>> batches,
+            ExecutorService decoders) throws InterruptedException {
+        byte[] data = new byte[BLOCK_SIZE * 2];
+        ByteBuffer buf = StructuralIndex.wrap(data);
+        StructuralIndex index = new StructuralIndex(false);
+        int length = 0;      // bytes in data
+        int boundary = 0;    // end of the last whole record in data
+        long recordsBefore = 0;
+        boolean ifHeader = true;
+        for (byte[] block = blocks.take(); block != END; block = blocks.take()) {
+            if (length + block.length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + block.length));
+                buf = StructuralIndex.wrap(data);
+            }
+            System.arraycopy(block, 0, data, length, block.length);
+            int end = index.lastRecordEnd(buf, length, length + block.length);
+            if (end != -1)
+                boundary = end;
+            length += block.length;
+
+            if (boundary >= BLOCK_SIZE) {
+                // the partial record at the end starts the next batch
+                byte[] next = new byte[Math.max(BLOCK_SIZE * 2, (length - boundary) * 2)];
+                System.arraycopy(data, boundary, next, 0, length - boundary);
+                batches.put(decoders.submit(decode(new Batch(data, boundary, recordsBefore, ifHeader))));
+                // every record counted so far ends by the boundary
+                recordsBefore = index.getRecords();
+                ifHeader = false;
+                data = next;
+                buf = StructuralIndex.wrap(data);
+                length -= boundary;
+                boundary = 0;
+            }
+        }
+        // the rest, the last record may not end on a line break
+        if (length > 0)
+            batches.put(decoders.submit(decode(new Batch(data, length, recordsBefore, ifHeader))));
+        batches.put(CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Decoder stage - parses the records of a batch like Problem.readProblems
+     *   LAST & FIRST are filled in for the first record of each student in the batch so
+     *   addSubmission has them when the student is first seen in the whole file
+     */
+    private Callable<Parsed> decode(Batch batch) {
+        return () -> {
+            Parsed parsed = new Parsed();
+            ByteArrayOutputStream buffer = ifEncrypt ? new ByteArrayOutputStream(batch.length + batch.length / 8) : null;
+            PrintStream ps = ifEncrypt ? new PrintStream(buffer) : null;
+            Set<String> seen = new HashSet<String>();
+            CsvReader csv = new CsvReader(Channels.newChannel(new ByteArrayInputStream(batch.data, 0, batch.length)),
+                    batch.recordsBefore);
+            if (batch.ifHeader) {
+                Problem.readHeader(csv);
+                if (ifEncrypt)
+                    Problem.writeRecord(ps, csv);
+            }
+            Submission sub = new Submission();
+            while (csv.next()) {
+                if (!Problem.parseRecord(csv, assignedIndex, sub, null, codes))
+                    continue;
+                if (ifEncrypt)
+                    Problem.writeEncryptedRecord(ps, csv);
+                if (PracticeItGrader.ifDebug || seen.add(Student.normalize(sub.userName))) {
+                    sub.lastName = csv.fieldString(Problem.CSV.LAST.ordinal());
+                    sub.firstName = csv.fieldString(Problem.CSV.FIRST.ordinal());
+                }
+                parsed.subs.add(sub);
+                sub = new Submission();
+            }
+            csv.close();
+            if (ifEncrypt) {
+                ps.flush();
+                parsed.encrypted = buffer.toByteArray();
+            }
+            return parsed;
+        };
+    }
+
+    /**
+     * Writer stage - writes the encrypted batches in order until END
+     */
+    private void writeBatches(BlockingQueue<byte[]> writes, OutputStream out) throws IOException, InterruptedException {
+        for (byte[] bytes = writes.take(); bytes != END; bytes = writes.take())
+            out.write(bytes);
+        out.flush();
+    }
+
+    /**
+     * Body of a stage
+     */
+    private interface StageBody {
+        void run() throws Exception;
+    }
+
+    /**
+     * A stage's daemon thread - a failure is kept for the caller, an interrupt just ends it
+     */
+    private Thread stage(StageBody body, String name) {
+        return daemon(() -> {
+            try {
+                body.run();
+            } catch (InterruptedException e) {
+                // stopped by read
+            } catch (Throwable e) {
+                // the caller may be waiting on this stage's queue - only the first failure wakes it,
+                //   later ones come from read stopping the stages
+                if (failure.compareAndSet(null, e))
+                    caller.interrupt();
+            }
+        }, name);
+    }
+
+    // its allocation is left for StageStats as it ends
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(() -> {
+            try {
+                runnable.run();
+            } finally {
+                StageStats.threadEnding();
+            }
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,506 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Class MappedCsvReader
+ *
+ * Memory mapped reader for very large practice-it.csv exports
+ *
+ * The file is mapped in 1GB chunks (a single MappedByteBuffer can't pass 2GB) and record
+ *   boundaries are found by scanning the raw bytes.  Nothing is decoded until asked for -
+ *   Problem.readProblems only decodes the short header fields it needs, while the
+ *   Solution Code is hashed and searched for red flags directly on the mapped bytes.
+ *   The heap used stays small and fixed no matter how big the export is.
+ *
+ *   Field positions are absolute file offsets, quoted fields exclude their quotes and
+ *   still contain the doubled "" which are collapsed as the bytes are read
+ *
+ * Version 2.1 - 10/18/26 initial version
+ *                      quoted fields, quote counts & record starts found 8-64 bytes at a time (StructuralIndex)
+ *                      int, date/time & Yes/No fields decoded from the bytes (FieldDecoder)
+ *                      problem descriptors looked up from the bytes (ProblemCatalog)
+ *                      fieldDigest of the raw bytes, 8 at a time (CodeCache)
+ *                      malformed UTF-8 decoded to U+FFFD as CsvReader does
+ *                      field & record ends found from the block masks of StructuralIndex.classify
+ */
+class MappedCsvReader implements CsvSource {
+    private static final int CHUNK_BITS = 30; // 1GB per MappedByteBuffer
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+    private long position; // start of the next record
+    private final long limit; // stop scanning records here - whole file unless a range was given
+
+    // Current record
+    private long[] fieldStart = new long[16];
+    private long[] fieldEnd = new long[16];
+    private boolean[] fieldQuoted = new boolean[16];
+    private long cursor; // byte being decoded by nextCodePoint
+    private final char[] scratch = new char[128]; // short fields for FieldDecoder & ProblemCatalog
+    private final CodeFingerprint fingerprint = new CodeFingerprint(PracticeItGrader.ifNormalizeCode); // reused for every record
+    private int fieldCount;
+    private long recordNumber;
+    private boolean ifLineBreak; // current record ended on a line break, not the end of the file
+
+    // 64 byte block classified last - starts at a multiple of 64, so never spans two chunks
+    private long blockStart = -1;
+    private long blockQuotes;      // its quotes
+    private long blockStructurals; // its quotes, commas & line breaks
+    private final long[] masks = new long[3]; // filled in by StructuralIndex.classify
+
+    /**
+     * Maps the whole file
+     *
+     * @param path - file to read, assumed UTF-8
+     * @throws IOException
+     */
+    public MappedCsvReader(Path path) throws IOException {
+        this(path, 0, -1);
+    }
+
+    /**
+     * Maps the file but only returns records that start in [start, end)
+     *   start must be the beginning of a record, end = -1 for end of file
+     *
+     * @param path
+     * @param start
+     * @param end
+     * @throws IOException
+     */
+    public MappedCsvReader(Path path, long start, long end) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        int count = (int) ((size + CHUNK_MASK) >>> CHUNK_BITS);
+        chunks = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long chunkStart = (long) i << CHUNK_BITS;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, Math.min(size - chunkStart, 1L << CHUNK_BITS));
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN); // for StructuralIndex
+        }
+        position = start;
+        limit = end == -1 ? size : Math.min(end, size);
+    }
+
+    /**
+     * Maps the file but only returns records that start in [start, end), numbered on from the
+     *   records before start so getRecordNumber counts from the file start
+     *
+     * @param path
+     * @param start - beginning of a record
+     * @param end - -1 for end of file
+     * @param recordsBefore - records in the file before start, header included
+     * @throws IOException
+     */
+    public MappedCsvReader(Path path, long start, long end, long recordsBefore) throws IOException {
+        this(path, start, end);
+        this.recordNumber = recordsBefore;
+    }
+
+    /**
+     * Size of the mapped file in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Reads a single byte anywhere in the file
+     *
+     * @param pos - file offset
+     */
+    public byte byteAt(long pos) {
+        return chunks[(int) (pos >>> CHUNK_BITS)].get((int) (pos & CHUNK_MASK));
+    }
+
+    @Override
+    public boolean next() {
+        fieldCount = 0;
+        if (position >= limit)
+            return false;
+
+        long pos = position;
+        ifLineBreak = false;
+        boolean inQuotes = false;
+        boolean quoteInQuotes = false;
+        startField(pos);
+        while (true) {
+            if (!inQuotes)
+                pos = nextStructural(pos, size); // only , \n & " matter outside quotes
+            if (pos >= size) {
+                // last record without a line break
+                if (quoteInQuotes)
+                    fieldEnd[fieldCount] = pos - 1;
+                endField(pos);
+                break;
+            }
+            byte b = byteAt(pos++);
+            if (inQuotes) {
+                if (quoteInQuotes) {
+                    quoteInQuotes = false;
+                    if (b == '"')
+                        continue; // "" stays in the field, collapsed when read
+                    inQuotes = false;
+                    fieldEnd[fieldCount] = pos - 2; // closing quote, content after it is ignored (so by CsvReader too)
+                } else {
+                    if (b == '"')
+                        quoteInQuotes = true;
+                    else
+                        pos = nextQuote(pos, size); // skip to the field's next quote
+                    continue;
+                }
+            }
+            if (b == ',') {
+                endField(pos - 1);
+                startField(pos);
+            } else if (b == '\n') {
+                endField(pos - 1);
+                ifLineBreak = true;
+                break;
+            } else if (b == '"' && pos - 1 == fieldStart[fieldCount]) {
+                inQuotes = true;
+                fieldQuoted[fieldCount] = true;
+                fieldStart[fieldCount] = pos;
+                fieldEnd[fieldCount] = -1;
+            }
+        }
+        position = pos;
+        recordNumber++;
+        return true;
+    }
+
+    /**
+     * Offset of the first quote in [pos, end), end if none
+     */
+    private long nextQuote(long pos, long end) {
+        return nextMarked(pos, end, false);
+    }
+
+    /**
+     * Offset of the first quote, comma or line break in [pos, end), end if none
+     */
+    private long nextStructural(long pos, long end) {
+        return nextMarked(pos, end, true);
+    }
+
+    private long nextMarked(long pos, long end, boolean ifStructural) {
+        while (pos < end) {
+            long block = pos & ~63L;
+            if (block != blockStart)
+                classifyBlock(block);
+            long marks = (ifStructural ? blockStructurals : blockQuotes) & (-1L << (pos - block));
+            if (marks != 0)
+                return Math.min(block + Long.numberOfTrailingZeros(marks), end);
+            pos = block + 64;
+        }
+        return end;
+    }
+
+    private void classifyBlock(long block) {
+        MappedByteBuffer chunk = chunks[(int) (block >>> CHUNK_BITS)];
+        int offset = (int) (block & CHUNK_MASK);
+        StructuralIndex.classify(chunk, offset, Math.min(offset + 64, chunk.limit()), masks);
+        blockStart = block;
+        blockQuotes = masks[StructuralIndex.QUOTE];
+        blockStructurals = blockQuotes | masks[StructuralIndex.NEWLINE] | masks[StructuralIndex.COMMA];
+    }
+
+    /**
+     * Counts the quote characters in [start, end)
+     */
+    public long countQuotes(long start, long end) {
+        long count = 0;
+        for (long pos = start; pos < end; ) {
+            int chunk = (int) (pos >>> CHUNK_BITS);
+            long base = (long) chunk << CHUNK_BITS;
+            int to = (int) (Math.min(end, base + chunks[chunk].limit()) - base);
+            count += StructuralIndex.countQuotes(chunks[chunk], (int) (pos - base), to);
+            pos = base + to;
+        }
+        return count;
+    }
+
+    /**
+     * Counts the records ending in [start, end) - line breaks outside quotes
+     *
+     * @param start - beginning of a record
+     * @param end
+     */
+    public long countRecords(long start, long end) {
+        StructuralIndex index = new StructuralIndex(false);
+        for (long pos = start; pos < end; ) {
+            int chunk = (int) (pos >>> CHUNK_BITS);
+            long base = (long) chunk << CHUNK_BITS;
+            int to = (int) (Math.min(end, base + chunks[chunk].limit()) - base);
+            index.lastRecordEnd(chunks[chunk], (int) (pos - base), to);
+            pos = base + to;
+        }
+        return index.getRecords();
+    }
+
+    /**
+     * Finds the first record starting at or after pos
+     *
+     * @param pos - any byte offset
+     * @param ifInQuotes - true if an odd number of quotes come before pos
+     * @return offset just after the first line break outside quotes, or the file size if none
+     */
+    public long nextRecordStart(long pos, boolean ifInQuotes) {
+        // pos may already be the start of a record
+        if (!ifInQuotes && pos > 0 && byteAt(pos - 1) == '\n')
+            return pos;
+        StructuralIndex index = new StructuralIndex(ifInQuotes);
+        while (pos < size) {
+            int chunk = (int) (pos >>> CHUNK_BITS);
+            long base = (long) chunk << CHUNK_BITS;
+            int found = index.firstRecordEnd(chunks[chunk], (int) (pos - base), chunks[chunk].limit());
+            if (found != -1)
+                return base + found;
+            pos = base + chunks[chunk].limit();
+        }
+        return size;
+    }
+
+    @Override
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    @Override
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Offset of the next record - the end of the current one
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * False if the current record ran into the end of the file - it may still be being written
+     */
+    public boolean endsWithLineBreak() {
+        return ifLineBreak;
+    }
+
+    @Override
+    public String fieldString(int index) {
+        long start = fieldStart[index];
+        long end = fieldEnd[index];
+        byte[] raw = new byte[(int) (end - start)];
+        int len = 0;
+        for (long pos = start; pos < end; pos++) {
+            byte b = byteAt(pos);
+            raw[len++] = b;
+            if (b == '"' && fieldQuoted[index])
+                pos++; // skip the second quote of ""
+        }
+        return new String(raw, 0, len, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean fieldEquals(int index, String s) {
+        return fieldString(index).equals(s);
+    }
+
+    @Override
+    public int fieldInt(int index) {
+        int length = copyAscii(index);
+        return length >= 0 ? FieldDecoder.parseInt(scratch, 0, length) : Integer.parseInt(fieldString(index));
+    }
+
+    @Override
+    public long fieldEpochSeconds(int index) {
+        int length = copyAscii(index);
+        return length >= 0 ? FieldDecoder.epochSeconds(scratch, 0, length)
+                : FieldDecoder.epochSeconds(fieldString(index));
+    }
+
+    @Override
+    public boolean fieldYes(int index) {
+        return fieldStart[index] < fieldEnd[index] && (byteAt(fieldStart[index]) | 0x20) == 'y';
+    }
+
+    @Override
+    public int fieldId(int index, ProblemCatalog catalog) {
+        int length = copyAscii(index);
+        return length >= 0 ? catalog.find(scratch, 0, length) : catalog.find(fieldString(index));
+    }
+
+    /**
+     * Copies a short ASCII field into scratch for FieldDecoder & ProblemCatalog
+     *
+     * @return its length, -1 if it's too long or not ASCII - decode fieldString instead
+     */
+    private int copyAscii(int index) {
+        long start = fieldStart[index];
+        long end = fieldEnd[index];
+        if (end - start > scratch.length)
+            return -1;
+        int length = 0;
+        for (long pos = start; pos < end; pos++) {
+            byte b = byteAt(pos);
+            if (b < 0)
+                return -1;
+            scratch[length++] = (char) b;
+            if (b == '"' && fieldQuoted[index])
+                pos++; // skip the second quote of ""
+        }
+        return length;
+    }
+
+    /**
+     * Digest of the bytes as they are in the file - "" is left doubled, so quoted fields are
+     *   hashed apart from unquoted ones.  Whole words are read from the chunk, only a word
+     *   crossing into the next chunk and the tail are put together a byte at a time
+     */
+    @Override
+    public CodeCache.Digest fieldDigest(int index) {
+        CodeCache.Hasher hasher = new CodeCache.Hasher(fieldQuoted[index]);
+        long start = fieldStart[index];
+        long end = fieldEnd[index];
+        long pos = start;
+        while (end - pos >= 8) {
+            MappedByteBuffer chunk = chunks[(int) (pos >>> CHUNK_BITS)];
+            int offset = (int) (pos & CHUNK_MASK);
+            if (offset + 8 <= chunk.limit()) {
+                hasher.add(chunk.getLong(offset));
+            } else {
+                long word = 0;
+                for (int i = 0; i < 8; i++)
+                    word |= (byteAt(pos + i) & 0xFFL) << (i * 8);
+                hasher.add(word);
+            }
+            pos += 8;
+        }
+        if (pos < end) {
+            long word = 0;
+            for (int shift = 0; pos < end; pos++, shift += 8)
+                word |= (byteAt(pos) & 0xFFL) << shift;
+            hasher.add(word);
+        }
+        return hasher.finish(end - start);
+    }
+
+    /**
+     * Same value as Problem.computeCodeHash(CharSequence, int, int) but computed on the
+     *   UTF-8 bytes - ASCII is fed as is, anything else is decoded to a code point on the fly
+     */
+    @Override
+    public long codeHash(int index, Winnower winnower) {
+        fingerprint.setWinnower(winnower);
+        cursor = fieldStart[index];
+        while (cursor < fieldEnd[index])
+            fingerprint.add(nextCodePoint(fieldEnd[index], fieldQuoted[index]));
+        long hash = fingerprint.finish();
+        fingerprint.setWinnower(null);
+        return hash;
+    }
+
+    /**
+     * Same as RedFlagScanner.countLines on the decoded field, but decodes the UTF-8 bytes
+     *   on the fly instead of copying the field
+     */
+    @Override
+    public int[] scanRedFlags(int index, RedFlagScanner scanner) {
+        RedFlagScanner.Scan scan = scanner.new Scan();
+        cursor = fieldStart[index];
+        while (cursor < fieldEnd[index]) {
+            int c = nextCodePoint(fieldEnd[index], fieldQuoted[index]);
+            if (c >= 0x10000) {
+                // supplementary characters are two chars in a String
+                scan.add(Character.highSurrogate(c));
+                scan.add(Character.lowSurrogate(c));
+            } else
+                scan.add((char) c);
+        }
+        return scan.finish();
+    }
+
+    /**
+     * Decodes the code point at cursor and moves past it
+     *   malformed UTF-8 becomes U+FFFD just as CsvReader's decoder (CodingErrorAction.REPLACE) does it -
+     *   one for a byte that can't start a sequence or for the valid start of one cut short, and a byte
+     *   that doesn't continue the sequence is left to be decoded next, so a stray Windows-1252 byte
+     *   can't swallow the " or , after it
+     *
+     * @param end - end of the field
+     * @param quoted - true if "" is an escaped "
+     */
+    private int nextCodePoint(long end, boolean quoted) {
+        int b = byteAt(cursor++);
+        if (b >= 0) {
+            if (b == '"' && quoted)
+                cursor++; // "" -> "
+            return b;
+        }
+        // multi-byte UTF-8 sequence - continuation bytes are 80-BF, the second byte's range is narrower
+        //   after E0, F0 & F4 so overlong forms and code points past U+10FFFF are malformed
+        b &= 0xFF;
+        int extra, low = 0x80, high = 0xBF;
+        if (b >= 0xC2 && b <= 0xDF) {
+            extra = 1;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            extra = 2;
+            if (b == 0xE0)
+                low = 0xA0;
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            extra = 3;
+            if (b == 0xF0)
+                low = 0x90;
+            else if (b == 0xF4)
+                high = 0x8F;
+        } else {
+            return 0xFFFD;
+        }
+        int c = b & (0x3F >> extra);
+        for (int i = 0; i < extra; i++) {
+            int next = cursor < end ? byteAt(cursor) & 0xFF : 0;
+            if (next < low || next > high)
+                return 0xFFFD;
+            c = (c << 6) | (next & 0x3F);
+            cursor++;
+            low = 0x80;
+            high = 0xBF;
+        }
+        // a UTF-16 surrogate encoded on its own is malformed as a whole
+        return c >= 0xD800 && c <= 0xDFFF ? 0xFFFD : c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // Record building
+    ///////////////////////////////////////////////////////////////////
+
+    private void startField(long pos) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = pos;
+        fieldEnd[fieldCount] = -1;
+        fieldQuoted[fieldCount] = false;
+    }
+
+    private void endField(long pos) {
+        if (fieldEnd[fieldCount] == -1) {
+            // unquoted field - drop the \r of a \r\n line ending
+            if (pos > fieldStart[fieldCount] && byteAt(pos - 1) == '\r')
+                pos--;
+            fieldEnd[fieldCount] = pos;
+        }
+        fieldCount++;
+    }
+}
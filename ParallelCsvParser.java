@@ -0,0 +1,163 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Class ParallelCsvParser
+ *
+ * Parses practice-it.csv on all cores
+ *
+ * Records are independent once we know where they start, but the Solution Code is quoted
+ *   and spans many lines so a line break is only a record boundary if it's outside quotes.
+ *   With RFC-4180 quoting ("" for a quote inside a field) that is exactly when an even
+ *   number of quotes come before it, so the file is split up in 4 passes:
+ *
+ *   1. count the quotes in each byte range (parallel)
+ *   2. add up the counts to get the quote parity at the start of each range, then move
+ *      each split point forward to the first line break with even parity (parallel)
+ *   3. count the records of each range, so each is numbered from the file start (parallel)
+ *   4. parse each range of whole records with its own MappedCsvReader (parallel)
+ *
+ * The chunks come back in file order so Problem.addSubmission can add them exactly
+ *   as the sequential reader would - PracticeItGrader.printResults output is identical
+ *
+ * Version 2.1 - 10/18/26 initial version
+ *                      passes 1 & 2 use StructuralIndex
+ *                      ranges share one CodeCache
+ *                      records numbered from the file start, as the sequential reader does
+ */
+class ParallelCsvParser {
+    // Don't bother splitting the file into ranges smaller than this
+    static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Parses all records of a practice-it.csv file
+     *
+     * @param path - practice-it.csv
+     * @param assignedIndex - assigned Problems - needed to watch for red flags, only read
+     * @param codes - results of each distinct Solution Code, shared by the ranges, may be null
+     * @return list of parsed submissions for each chunk in file order
+     * @throws IOException
+     */
+    public static List<List<Submission>> parse(Path path, ProblemIndex assignedIndex, CodeCache codes) throws IOException {
+        MappedCsvReader file = new MappedCsvReader(path);
+        try {
+            // header is checked once, data starts right after it
+            Problem.readHeader(file);
+            long dataStart = file.getPosition();
+            long size = file.size();
+
+            int threads = Runtime.getRuntime().availableProcessors();
+            int count = (int) Math.max(1, Math.min(threads * 4L, (size - dataStart) / MIN_CHUNK_SIZE));
+
+            // raw split points, not yet on record boundaries
+            long[] split = new long[count + 1];
+            for (int i = 0; i <= count; i++)
+                split[i] = dataStart + (size - dataStart) * i / count;
+
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+
+            ///////////////////////////////////////////////////////////
+            // Pass 1 - count quotes in each range
+            ///////////////////////////////////////////////////////////
+            List<Callable<Long>> countTasks = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                final long start = split[i], end = split[i + 1];
+                countTasks.add(() -> file.countQuotes(start, end));
+            }
+            List<Long> quotes = invokeAll(pool, countTasks);
+
+            ///////////////////////////////////////////////////////////
+            // Pass 2 - resync each split point onto the next record start
+            ///////////////////////////////////////////////////////////
+            List<Callable<Long>> syncTasks = new ArrayList<>();
+            long quotesBefore = file.countQuotes(0, dataStart); // header quotes - normally even
+            for (int i = 0; i < count; i++) {
+                final long start = split[i];
+                final boolean ifInQuotes = (quotesBefore & 1) != 0;
+                syncTasks.add(() -> start == dataStart ? start : file.nextRecordStart(start, ifInQuotes));
+                quotesBefore += quotes.get(i);
+            }
+            List<Long> starts = new ArrayList<>(invokeAll(pool, syncTasks));
+            starts.add(size);
+
+            ///////////////////////////////////////////////////////////
+            // Pass 3 - count the records of each range
+            //   error messages then give the same record numbers as reading sequentially
+            ///////////////////////////////////////////////////////////
+            List<Callable<Long>> recordTasks = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                final long start = starts.get(i), end = starts.get(i + 1);
+                recordTasks.add(() -> file.countRecords(start, end));
+            }
+            List<Long> records = invokeAll(pool, recordTasks);
+
+            ///////////////////////////////////////////////////////////
+            // Pass 4 - parse each range of whole records
+            ///////////////////////////////////////////////////////////
+            List<Callable<List<Submission>>> parseTasks = new ArrayList<>();
+            long recordsBefore = file.getRecordNumber(); // the header
+            for (int i = 0; i < count; i++) {
+                final long start = starts.get(i), end = starts.get(i + 1), before = recordsBefore;
+                parseTasks.add(() -> parseRange(path, start, end, before, assignedIndex, codes));
+                recordsBefore += records.get(i);
+            }
+            return invokeAll(pool, parseTasks);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Parses every record starting in [start, end)
+     *   LAST & FIRST are filled in for the first record of each student in the range so
+     *   addSubmission has them when the student is first seen in the whole file
+     *
+     * @param recordsBefore - records in the file before start, header included
+     */
+    private static List<Submission> parseRange(Path path, long start, long end, long recordsBefore,
+            ProblemIndex assignedIndex, CodeCache codes) throws IOException {
+        List<Submission> subs = new ArrayList<>();
+        if (start >= end)
+            return subs;
+        Set<String> seen = new HashSet<>();
+        MappedCsvReader csv = new MappedCsvReader(path, start, end, recordsBefore);
+        try {
+            while (csv.next()) {
+                Submission sub = new Submission();
+                if (!Problem.parseRecord(csv, assignedIndex, sub, null, codes))
+                    continue;
+                if (seen.add(Student.normalize(sub.userName))) {
+                    sub.lastName = csv.fieldString(Problem.CSV.LAST.ordinal());
+                    sub.firstName = csv.fieldString(Problem.CSV.FIRST.ordinal());
+                }
+                subs.add(sub);
+            }
+        } finally {
+            csv.close();
+        }
+        return subs;
+    }
+
+    /**
+     * Runs the tasks on the pool and returns their results in order
+     *   unwraps the IOException of a failed task
+     */
+    static <T> List<T> invokeAll(ForkJoinPool pool, List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("parsing interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException)
+                    throw (IOException) e.getCause();
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return results;
+    }
+}
@@ -1,5 +1,6 @@
 import java.util.*;
 import java.io.*;
+import java.nio.file.*;
 import java.security.MessageDigest;
 import java.time.*;
 
@@ -41,6 +42,19 @@ import java.time.*;
  * Version 2.0.1 - 5/31/20 cleanup - added Flag class, catch null pointers
  * Version 2.0.2 - 6/5/20 print cleanup
  * Version 2.0.3 - 6/6/20 removed filters for code size & uniqueness
+ * Version 2.1 - 10/18/26 streaming CsvReader, ifMemoryMapped for very large exports, ifParallel parsing
+ *                      StudentRegistry for O(1) student lookups, ProblemIndex for assigned problems
+ *                      student problems read from the columnar SubmissionStore
+ *                      storeProblemTimes - one sort & linear pass per student
+ *                      CodeGroups replaces findCommonFlags
+ *                      ifNormalizeCode - 64 bit CodeFingerprint code hashes
+ *                      "Similar" flag for near duplicate code from SimilarityIndex (winnowing)
+ *                      ifIncremental only parses records added since the last run (GradingCache)
+ *                      ifInstrument writes each stage's numbers to Grading Stages.json (StageStats)
+ *                      report written through ReportWriter - text, csv or json, to the console or reportFile
+ *                      StudentPass processes the students on all cores, merged per problem in class list order
+ *                      ifPipelined reads practice-it.csv through IngestPipeline
+ *                      ifDedupCode fingerprints each distinct Solution Code once (CodeCache)
  */
 public class PracticeItGrader {
     // Set to true to output diagnostic debugging info
@@ -48,30 +62,60 @@ public class PracticeItGrader {
             
     // Set to true to change real student names (George) into hashed letters (AFLTZ)
     static boolean ifEncrypt = false;
+    // Set to true to memory map practice-it.csv - for exports too big to stream comfortably
+    static boolean ifMemoryMapped = false;
+    // Set to true to parse practice-it.csv on all cores - output is the same as sequential
+    static boolean ifParallel = false;
+    // Set to true to read practice-it.csv as a pipeline - reading, hashing & encrypting overlap (see IngestPipeline)
+    static boolean ifPipelined = false;
+    // Set to true to keep parsed submissions in practice-it.cache and only parse records added since (see GradingCache)
+    static boolean ifIncremental = false;
+    // Set to true to write the time, CPU, rows, bytes & allocation of each stage to "Grading Stages.json" (see StageStats)
+    static boolean ifInstrument = false;
+    // Report format - "text" (as always), "csv" or "json" (see ReportWriter)
+    static String reportFormat = "text";
+    // File the report is written to, null for the console
+    static String reportFile = null;
+    // Set to true to match code even if identifiers were renamed or literals changed (see CodeFingerprint)
+    static boolean ifNormalizeCode = false;
+    // Set to true to fingerprint each distinct Solution Code once, copies reuse its results (see CodeCache)
+    static boolean ifDedupCode = false;
+    // Smallest share of k-gram fingerprints two students' code must have in common to be flagged "Similar"
+    static double similarThreshold = 0.8;
     // Set to year,mo,day,h,m,s to calculate # of problems before that time
     static LocalDateTime dtDeadline = LocalDateTime.of(2020,05,20,23,59,59); // LocalDateTime.of(2019,1,20,23,59,59);
     
-    public static void main(String[] args) throws FileNotFoundException {
+    public static void main(String[] args) throws IOException {
         // Problem class - type, number, time
         ArrayList<Problem> problemList = null;
 
         // Student class - name, array of problems
-        ArrayList<Student> studentList;
+        StudentRegistry studentList;
         
         // true if a list of student names text file exists to filter the results
         boolean ifClassList;
 
+        StageStats.Timer timer = StageStats.start("readStudents");
         studentList = Student.readStudents();
         ifClassList = studentList == null ? false : true;
+        timer.end(ifClassList ? studentList.size() : 0, StageStats.size(Paths.get("Student Usernames.txt")));
 
         // Reads list of assigned problems to filter results by
+        timer = StageStats.start("readAssignedProblems");
         problemList = Problem.readAssignedProblems();
+        timer.end(problemList.size(), StageStats.size(Paths.get("Assigned Problems.txt"))
+                + StageStats.size(CheaterCorpus.indexPathFor(Paths.get("Cheaters.txt"))));
 
         // Reads problems performed by students and stores into studentList, will create list if null
         // problemList passed in for red flag detection
+        timer = StageStats.start("readProblems");
         studentList = Problem.readProblems(studentList, problemList);
+        timer.end(studentList.getSubmissions().size(), StageStats.size(Paths.get("practice-it.csv")));
 
         printResults(ifClassList, problemList, studentList);
+
+        if (ifInstrument)
+            StageStats.writeJson(Paths.get(StageStats.SUMMARY_FILE));
     }
 
     /**
@@ -79,149 +123,41 @@ public class PracticeItGrader {
      * 
      * @param ifClassList - if false, just print the list of students
      * @param problemList - list of assigned problems 
-     * @param studentList - list of students, each with an embedded list of problems attempted
+     * @param students - list of students, their problems attempted are in students.getSubmissions()
      *
      * username firstname Lastname #15 Attempted 2 of 12
      *   Missing: SC 10:16 SC 10:18 Ex 10:2 Ex 10:3 Ex 10:4 Ex 10:6 Ex 10:7 Ex 10:10 Ex 10:12 Ex 10:14 Ex 10:15 
      *   Failed: SC 10:8 
      *   Extras: SC 10:2 
      */
-    public static void printResults(Boolean ifClassList, ArrayList<Problem> problemList, ArrayList<Student> studentList) {
-        // Output class list
-        int iStudent = 1;
-        
+    public static void printResults(Boolean ifClassList, ArrayList<Problem> problemList, StudentRegistry students) throws IOException {
+        try (ReportWriter report = ReportWriter.open(reportFormat, reportFile == null ? null : Paths.get(reportFile))) {
+            printResults(ifClassList, problemList, students, report);
+        }
+    }
+
+    /**
+     * printResults to any ReportWriter
+     * 
+     * @param ifClassList - if false, just print the list of students
+     * @param problemList - list of assigned problems 
+     * @param students - list of students, their problems attempted are in students.getSubmissions()
+     * @param report - where the results go, not closed
+     */
+    public static void printResults(Boolean ifClassList, ArrayList<Problem> problemList, StudentRegistry students,
+            ReportWriter report) throws IOException {
         if (ifDebug) {
             System.out.println();
             System.out.println("printResults Begin");
         }
         
         /////////////////////////////////////////////////////////////////////
-        // Process each Student
+        // Process each Student - on all cores, printed in class list order
+        //   then each assigned problem gets the class' code hashes, tries & times
         /////////////////////////////////////////////////////////////////////
-        for (Student s : studentList) {
-            // Always print out the student usernames, if no class list this is all we'll do
-            System.out.printf("%s %s %s #%d ", 
-                    // Print encrypted names to hide student info when sharing samples
-                    ifEncrypt ? Student.toHash(s.getUserName()) : s.getUserName(), 
-                    ifEncrypt ? Student.toHash(s.getFirstName()) : s.getFirstName(), 
-                    ifEncrypt ? Student.toHash(s.getLastName()) : s.getLastName(), 
-                    iStudent++); 
-
-            // Only print problems if we already have the class list
-            if (ifClassList) {
-                ArrayList<Problem> assigned = (ArrayList<Problem>) problemList.clone();
-                ArrayList<Problem> extras = new ArrayList<Problem>();
-                ArrayList<Problem> failed = new ArrayList<Problem>();
-
-                int countAttemptByDeadline = 0, countOld = 0;
-                
-                // This is an arbitrary # of days to flag "old" problems done for a previous class, etc
-                LocalDateTime dtStart = dtDeadline.minusDays(10);
-                
-                // This is a list of all problem submission times
-                LinkedList<LocalDateTime> dates = new LinkedList<>();
-                
-                /////////////////////////////////////////////////////////////
-                // Process each problem for printing
-                /////////////////////////////////////////////////////////////
-                for (int iProblem = 0; iProblem<s.getProblems().size(); iProblem++) {
-                    Problem p = s.getProblems().get(iProblem);
-
-                    //////////////////////////////////////////////////////////
-                    // Cheat Checking - transfer each student's problem info to 
-                    //   whole class' list of assigned problems
-                    //////////////////////////////////////////////////////////
-                    int indexAssignedProblem = problemList.indexOf(p);
-                    if (indexAssignedProblem != -1) {
-                        Problem assignedProblem = problemList.get(indexAssignedProblem);
-                        String studentName = s.getUserName();
-                        if (p.getCodeHash().size() > 1)
-                            System.out.printf("ERROR - student %s problem %s should only have one code hash\n", studentName, p);
-                        assignedProblem.getCodeHash().put(studentName, p.getCodeHash().get(studentName));
-                        assignedProblem.getTries().put(studentName, p.getTries().get(studentName));
-                    }
-                    
-                    int iRemove = -1;
-                    if (assigned != null && (iRemove = assigned.indexOf(p)) != -1) {
-                        // Problem is on the assigned list
-                        // check if it's done by deadline
-                        if (dtDeadline != null) {
-                                if (p.getDate().compareTo(dtDeadline) <= 0)
-                                    countAttemptByDeadline++;
-                                if (p.getDate().isBefore(dtStart))
-                                    countOld++;
-                                dates.add(p.getDate());
-                        }
-                        
-                        if (!p.isIfCompleted())
-                            failed.add(p);
-                        // remove it from list of assigned problems
-                        assigned.remove(iRemove);
-                    } else {
-                        // add it to the extras list
-                        extras.add(p);
-                    }
-                }
-                
-                // Continue Print # attemped out of assigned, but don't count any extras
-                System.out.printf("Attempted %d of %d assigned\n", 
-                        s.getProblems().size() - extras.size(), problemList.size());
-
-                Collections.sort(assigned);
-                Collections.sort(failed);
-                Collections.sort(extras);
-
-                // Print "Missing SC 1.2", "Failed: SC 2.3", "Extras: Ex 3.4"
-                System.out.printf("\tMissing %d:", assigned.size());
-                for (Problem p: assigned)
-                    System.out.printf(p.toString());
-                System.out.println();
-                System.out.printf("\tFailed %d: ", failed.size());
-                for (Problem p: failed)
-                    System.out.printf(p.toString());
-                System.out.println();
-                System.out.printf("\tExtras %d: ", extras.size());
-                for (Problem p: extras)
-                    System.out.printf(p.toString());
-                System.out.println();
-                
-                // Print how many completed by deadline
-                if (dtDeadline != null) {
-                    System.out.println("\t" + countAttemptByDeadline + 
-                            " assigned attempted before " + 
-                            dtDeadline.toString().substring(0,10));
-                    System.out.println("\t" + countOld +
-                            " done before " + dtStart.toString().substring(0,10));
-                }                    
-
-                ///////////////////////////////////////////////////////////////
-                // Store problem times 
-                //
-                // Find length of time to complete each problem for later comparison to others
-                // We can only do this once all problems are read by sorting & subtracting
-                // We will store a 0 second duration to mark the first problem
-                // Problems with a long delay will be filtered out when checking for cheaters
-                ///////////////////////////////////////////////////////////////
-                Collections.sort(dates);
-                LocalDateTime dtCurrent = null;
-                if (!dates.isEmpty())
-                    dtCurrent = dates.getFirst();
-                for (LocalDateTime dtNext : dates) {
-                    // Find problem based on dtNext and store student's times
-                    for (Problem p : s.getProblems()) {
-                        if (p.getDate().equals(dtNext)) {
-                            // Store this <Student, time> into the original problem list's map
-                            int index = problemList.indexOf(p);
-
-                            problemList.get(index).getTimes().put(s.userName, Duration.between(dtCurrent, dtNext).getSeconds());
-                        }
-                    }
-                    dtCurrent = dtNext;
-                } // end examining all timestamps
-            } // end printing problems for a student in class
-            System.out.println(); // newline for each student          
-
-        } // done with all students
+        StageStats.Timer timer = StageStats.start("printResults students");
+        new StudentPass(problemList, students, dtDeadline).run(report, ifClassList);
+        timer.end(students.size(), 0);
         
         ////////////////////////////////////////////////////////////////////
         // Cheating Checks
@@ -229,8 +165,22 @@ public class PracticeItGrader {
         // We're done processing all student problems
         // Do cheating checks for each problem based on student -> code hashes & times
         ////////////////////////////////////////////////////////////////////
-        System.out.println("********  BY PROBLEM ANALYSIS **********");
-        for (Problem p : problemList) {
+        timer = StageStats.start("printResults cheat analysis");
+        report.beginProblems();
+        
+        // Group duplicate code for all exercises at once on all cores - the codeHash maps are only read
+        List<Map<String, Long>> exerciseHashes = new ArrayList<Map<String, Long>>();
+        for (Problem p : problemList)
+            exerciseHashes.add(p.getType().equals("Exercise") ? p.getCodeHash() : Collections.<String, Long>emptyMap());
+        List<List<List<String>>> duplicateGroups = CodeGroups.findAllDuplicates(exerciseHashes);
+        // and near duplicates from the k-gram fingerprints
+        List<Map<String, long[]>> exerciseKGrams = new ArrayList<Map<String, long[]>>();
+        for (Problem p : problemList)
+            exerciseKGrams.add(p.getType().equals("Exercise") ? p.getKGrams() : Collections.<String, long[]>emptyMap());
+        List<List<SimilarityIndex.Match>> similarPairs = SimilarityIndex.findAllSimilar(exerciseKGrams, similarThreshold);
+        
+        for (int iProblem = 0; iProblem < problemList.size(); iProblem++) {
+            Problem p = problemList.get(iProblem);
             
             // Only check the exercises
             if (p.getType().equals("Self-Check"))
@@ -240,13 +190,14 @@ public class PracticeItGrader {
 //          if (Problem.fInProblem(p, 9, 2))
 //              System.out.println("Breakpoint");
             
+            report.beginProblem(p);
+
             ///////////////////////////////////////////////////////////////
             // Check for signs of cheating by abnormally low times
             //    check for times < 1/2 of the median
             //    exclude first problems (0 time) and > 60 min
             ///////////////////////////////////////////////////////////////
             
-            String result = "";
             boolean fPrintedTimes = false;
             
             // We have a map of all <Student Name, duration in min>
@@ -274,114 +225,111 @@ public class PracticeItGrader {
             }
 
             if (studentTimeEntries.size() != 0) {
-                // Print out the whole range of times to see
-                result += String.format("(min)Times for %s are: ", p);
-                for (Map.Entry<String, Long>studentEntry : studentTimeEntries)
-                    result += String.format(studentEntry.getValue()/60 + " ");
-                result += String.format("\n");
-
                 // Examine bottom third and flag times < half of median
                 int size = studentTimeEntries.size();
                 long medianTime = studentTimeEntries.get(size/2).getValue();
                 if (medianTime > 5*60) {// don't  look at easy problems
                     int topTimeIndex = size/3;
-                    result += String.format("(min)Times: median %d vs: ", medianTime/60);
+                    List<Map.Entry<String, Long>> flagged = new ArrayList<Map.Entry<String, Long>>();
                     for (int index = 0; index < topTimeIndex; index++) {
                         if (studentTimeEntries.get(index).getValue() < medianTime / 2) {
                             Map.Entry<String, Long> cheaterEntry = studentTimeEntries.get(index); 
-                            result += String.format("%s=%d ", cheaterEntry.getKey(), cheaterEntry.getValue()/60, medianTime/60);
-                            flagCheater(studentList, cheaterEntry.getKey(), p, "Times");
+                            flagged.add(cheaterEntry);
+                            flagCheater(students, cheaterEntry.getKey(), p, "Times");
                             fPrintedTimes = true;
                         }
                     }
-                    result += String.format("\n");  // end Times line
+                    // Print out the whole range of times to see, then the fast ones
+                    if (fPrintedTimes)
+                        report.times(p, studentTimeEntries, medianTime, flagged);
                 }
             } // reduced student times exist
             
-            if (fPrintedTimes)
-                System.out.print(result);
-            
             //////////////////////////////////////////////////////////////////
             // Looking for abnormally low # of tries
             //    check for < 1/2 of the median # of tries
             //////////////////////////////////////////////////////////////////
             boolean fPrintedTries = false;
-            result = null;
             
             List<Map.Entry<String, Integer>> triesEntries = new ArrayList<> (p.getTries().entrySet());
             triesEntries.sort(Map.Entry.comparingByValue());
 
             if (triesEntries.size() != 0) {
-                result += String.format("# Tries for %s are: ", p);
-                for (Map.Entry<String, Integer>studentEntry : triesEntries)
-                    result += String.format(studentEntry.getValue() + " ");
-                result += String.format("\n");
-
                 int medianTries = triesEntries.get(triesEntries.size()/2).getValue();
                 if (triesEntries.get(0).getValue() < medianTries / 2) { 
-                    result += String.format("# Tries median %d vs: ", medianTries);
+                    List<Map.Entry<String, Integer>> flagged = new ArrayList<Map.Entry<String, Integer>>();
                     for (int index = 0; index < triesEntries.size(); index++) {
                         if (triesEntries.get(index).getValue() < medianTries / 2) {
                             Map.Entry<String, Integer> cheaterEntry = triesEntries.get(index); 
-                            result += String.format("%s=%d ", cheaterEntry.getKey(), cheaterEntry.getValue());
-                            flagCheater(studentList, cheaterEntry.getKey(), p, "Tries");
+                            flagged.add(cheaterEntry);
+                            flagCheater(students, cheaterEntry.getKey(), p, "Tries");
                             fPrintedTries = true;
                         }
                     }
-                    result += String.format("\n"); // new line after tries
+                    if (fPrintedTries)
+                        report.tries(p, triesEntries, medianTries, flagged);
                 } // cheaters to print
             } // tries
-            if (fPrintedTries)
-                System.out.print(result);
             
             //////////////////////////////////////////////////////////////////
             // Looking for duplicate code in exercises
             //    check for exact code matches
             //    Can't detect modified code but tries, times, red flags will add up
             //////////////////////////////////////////////////////////////////
-            Map<String, Integer> hashesMap = p.getCodeHash();
-
-            // only look for duplicates if 3/4th are unique
             // only exercises worth checking
-            // put into set to determine uniqueness
             
             // debughash - use this to find why duplicate code checking not catching
             if (Problem.ifDebugHash && Problem.fInProblem(p, Problem.chapterDebugHash, Problem.problemDebugHash))
                 System.out.println("breakpoint");
-            Set<Integer> uniqueHashes = new HashSet<Integer>(hashesMap.values());
             // filtering out problems with common dups prevented seeing true level of cheating
             //    instead you should rely upon large datasets identifying the real cheats
             if (p.getType().equals("Exercise")) { 
-                Map<Integer, ArrayList<String>> mapHashToNames = findCommonFlags(hashesMap);
-                // loop through each hash
-                for (int hash : mapHashToNames.keySet()) {
+                // loop through each group of names with the same hash, code too small (0 hash) is never grouped
+                for (List<String> names : duplicateGroups.get(iProblem)) {
                     // print list of names
-                    if (hash == 0) // ignore code that is too small
-                        continue; 
-                    System.out.printf("Problem %s: duplicated by: %s\n", p, mapHashToNames.get(hash));
+                    report.duplicate(p, names);
                     // if ** known cheater is in group, change to a red flag
                     String reason = "Code";
-                    for (String name : mapHashToNames.get(hash)) {
+                    for (String name : names) {
                         if (name.startsWith("**"))
                             reason = "Red Flag";
                     }
-                    for (String name : mapHashToNames.get(hash)) {
-                        flagCheater(studentList, name, p, reason);
+                    for (String name : names) {
+                        flagCheater(students, name, p, reason);
                         if (name.startsWith("**") == false)
-                            System.out.printf("\t%s tried %d times in %d min\n", name, p.getTries().get(name), p.getTimes().get(name)/60);
+                            report.duplicateMember(p, name, p.getTries().get(name), p.getTimes().get(name)/60);
                     }
                 }
             } // looking for duplicate code hash
-            if ((fPrintedTimes || fPrintedTries) && p.getTimes().size() != 0)
-                System.out.println(); // separating line per problem if we've printed
+            
+            //////////////////////////////////////////////////////////////////
+            // Looking for similar code - renamed variables, changed strings, a few lines changed
+            //    pairs with exactly the same code were already reported as duplicates
+            //    every pair is printed but a student is only flagged once per problem
+            //////////////////////////////////////////////////////////////////
+            Set<String> flaggedSimilar = new HashSet<String>();
+            for (SimilarityIndex.Match match : similarPairs.get(iProblem)) {
+                if (p.getCodeHash().get(match.name1).equals(p.getCodeHash().get(match.name2)))
+                    continue;
+                report.similar(p, match);
+                // similar to a ** known cheater is a red flag
+                String reason = match.name1.startsWith("**") || match.name2.startsWith("**") ? "Red Flag" : "Similar";
+                for (String name : new String[] {match.name1, match.name2}) {
+                    if (flaggedSimilar.add(name + reason))
+                        flagCheater(students, name, p, reason);
+                }
+            } // looking for similar code
+            // separating line per problem if we've printed
+            report.endProblem(p, (fPrintedTimes || fPrintedTries) && p.getTimes().size() != 0);
         } // end of all Problems
         
         /////////////////////////////////////////////////////////////////////
         // print out the cheater scores
         /////////////////////////////////////////////////////////////////////
 
-        // Sort by cheater scores
+        // Sort by cheater scores - copy so the registry keeps the class list order
         // This uses a anonymous class instead of creating a separate comparator class
+        ArrayList<Student> studentList = new ArrayList<Student>(students.getStudents());
         Collections.sort(studentList, new Comparator<Student>() {
             @Override
             public int compare(Student s1, Student s2) {
@@ -394,30 +342,28 @@ public class PracticeItGrader {
             int end = studentList.size()-1;
             while (end >= 0 && studentList.get(end).getCheatingIndex() == 0)
                 end--;
-            System.out.println("********  FINAL CHEATING ANALYSIS **********");
-            System.out.printf("Median cheating index was %d, Top 1/3rd suspicious are:\n", 
-                    studentList.get(end/2).getCheatingIndex());
+            report.beginCheating(studentList.get(end/2).getCheatingIndex());
             int indexStudent = 0;
             for (; indexStudent < studentList.size() / 3; indexStudent++)
-                printStudentCheatingReport(studentList.get(indexStudent));
+                printStudentCheatingReport(studentList.get(indexStudent), report);
             
-            System.out.printf("********  Other students with red flags ********\n");
+            report.beginOtherRedFlags();
             Flag fake = new Flag(null, "red flag");
             for (;indexStudent < studentList.size(); indexStudent++) {
                 if (studentList.get(indexStudent).getFlags().contains(fake)) {
                     for (Flag f : studentList.get(indexStudent).getFlags()) {
                         if (f.getReason().equals("red flag")) {
-                            System.out.printf("Student %s red flag %s\n",
-                                    studentList.get(indexStudent).getUserName(),
-                                    f.getProblem());
+                            report.otherRedFlag(studentList.get(indexStudent).getUserName(), f.getProblem());
                         }
                     }
                 }
             }
                     
         } // studentList exists
+        timer.end(problemList.size(), 0);
         
         if (ifDebug) {
+            report.flush();
             System.out.println("printResults End");
         }
     } // end PrintResults
@@ -429,14 +375,16 @@ public class PracticeItGrader {
      * @param cheaterName
      * @param reason - string reason for the flag
      */
-    public static void flagCheater(ArrayList<Student> studentList, String cheaterName, Problem p, String reason) {
+    public static void flagCheater(StudentRegistry studentList, String cheaterName, Problem p, String reason) {
         int seriousness = 0;
         // Increase student's cheating index
-        int index = studentList.indexOf(new Student(cheaterName, null, null));
+        Student s = studentList.get(cheaterName);
         if (reason.equalsIgnoreCase("Tries")) {
             seriousness = 1;
         } else if (reason.equalsIgnoreCase("Times")) {
             seriousness = 3;
+        } else if (reason.equalsIgnoreCase("Similar")) {
+            seriousness = 4;
         } else if (reason.equalsIgnoreCase("Code")) {
             seriousness = 5;
         } else if (reason.equalsIgnoreCase("red flag")) {
@@ -444,8 +392,7 @@ public class PracticeItGrader {
         } else
             System.out.printf("ERROR: unknown cheating flag\n", reason);
         
-        if (index != -1) {
-            Student s = studentList.get(index);
+        if (s != null) {
             s.setCheatingIndex(s.getCheatingIndex()+seriousness);
             Flag f = new Flag(p, reason);
             // Red flags may go off multiple times in a problem - only flag it once
@@ -454,45 +401,6 @@ public class PracticeItGrader {
         } 
     } // end flagCheater
     
-    /**
-     * Prepare groups of users who duplicated code from map of <UserName, CodeHash>
-     * This was parameterized to accept other flag types but not currently used except for int
-     *   
-     * input - [john=1, mary=2, phil=3, doug=2, jo=1, jerry=2]
-     * output - [1=[john, jo], 2=[mary, doug], 3=phil]
-     * 
-     * @param input - map of <UserName, flag> flag could be any type but typically int
-     * @return output - Map of <flag, List of Username> 
-     */
-    public static <T extends Comparable<T>> Map<T, ArrayList<String>> findCommonFlags(Map<String, T> input) {
-        List<Map.Entry<String, T>> listNameToFlag = new ArrayList<> (input.entrySet());
-        listNameToFlag.sort(Map.Entry.comparingByValue());
-        
-        Map<T, ArrayList<String>> mapFlagToNames = new HashMap<>();
-        
-        // loop through each hash backwards so we can remove easily
-        for (int index = listNameToFlag.size()-1; index > 0; index--) {
-            T item = listNameToFlag.get(index).getValue();
-            // if not unique
-            if (item.equals(listNameToFlag.get(index-1).getValue())) {
-                // create Map entry for the values from the original map
-                ArrayList<String> names = new ArrayList<String>();
-                mapFlagToNames.put(listNameToFlag.get(index).getValue(), names);
-                // add first name to list
-                names.add(listNameToFlag.get(index).getKey());
-                // remove any duplicates earlier in the list
-                while (index > 0 && item.equals(listNameToFlag.get(index-1).getValue())) {
-                    names.add(listNameToFlag.get(index-1).getKey());
-                    listNameToFlag.remove(index-1);
-                    index--;
-                }
-                // remove first offender
-                listNameToFlag.remove(index);
-            } // not unique
-        } // loop through hashes
-        return mapFlagToNames;
-    }
-
     /**
      * Print cheating report for a student
      * 
@@ -503,11 +411,11 @@ public class PracticeItGrader {
      * Tries: Ex 11:19 Ex 12:18 
      * 
      * @param s - student which contains details on cheating
+     * @param report - where it's written
      */
-    public static void printStudentCheatingReport(Student s) {
+    public static void printStudentCheatingReport(Student s, ReportWriter report) throws IOException {
         if (s.cheatingIndex == 0)
             return;
-        System.out.printf("**%s index %d\n", s.getUserName(), s.getCheatingIndex());
         // Build Map of <reason, list<problem numbers> from list<flags>
         Map<String, ArrayList<String>> mapFlagProb = new HashMap<String, ArrayList<String>>();
         for (Flag flag : s.getFlags()) {
@@ -517,12 +425,7 @@ public class PracticeItGrader {
             mapFlagProb.get(flag.getReason()).add(flag.getProblem().toString()); 
         }
         // Print out each flag type : list of problems
-        for (String reason : mapFlagProb.keySet()) {
-            System.out.print(reason + ": ");
-            for (String problemNum : mapFlagProb.get(reason))
-                System.out.printf(problemNum);
-            System.out.println();  // new line for each reason
-        }
+        report.cheater(s, mapFlagProb);
     }
     
 } // end PracticeItGrader
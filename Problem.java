@@ -1,4 +1,5 @@
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
 import java.time.format.*;
 import java.time.*;
@@ -22,14 +23,29 @@ import java.time.*;
  * Version 2.0.2 - 6/5/20 print cleanup
  * Version 2.0.3 - 6/6/20 removed filters for code size & uniqueness, debug hash variables
  * Version 2.0.2.1 - 6/7/20 added problem name to support the auto-generation of cheaters.txt through the cheaters.java file
+ * Version 2.1 - 10/18/26 readProblems uses streaming CsvReader - one record per problem, whole code field hashed at once
+ *                      memory mapped mode (MappedCsvReader) for very large exports
+ *                      parallel mode (ParallelCsvParser) - parseRecord/addSubmission split
+ *                      students looked up through StudentRegistry
+ *                      hashCode & getKey (ProblemKey), assigned problems found through ProblemIndex
+ *                      student submissions stored in SubmissionStore rather than a Problem each
+ *                      codeHash is a 64 bit CodeFingerprint of the tokens (comments & whitespace ignored)
+ *                      cheater code is fingerprinted as a whole like student code
+ *                      Winnower k-gram fingerprints of assigned exercises & cheaters kept for SimilarityIndex
+ *                      cheater problems loaded from CheaterCorpus (compiled Cheaters.idx)
+ *                      any number of red flags per problem, all found in one pass by RedFlagScanner
+ *                      ifIncremental reads only records added since the last run (GradingCache)
+ *                      pipelined mode (IngestPipeline) - reading, parsing & encrypting overlap
+ *                      tries, solved & date/time decoded in place to primitives (FieldDecoder)
+ *                      problem descriptors resolved with one ProblemCatalog probe, assigned problems named from it
+ *                      ifDedupCode reuses the code results of identical Solution Code (CodeCache)
  * 
  * Problem is used in several situations
  *   When reading a list of assigned problems it fills the type/chapter/number fields
  *     It will also check for a cheaters file and fill in the codeHash & redFlag
  *     
- *   When reading student problems it fills in all fields
- *     Student HAS-A list of Problems
- *     It will record single Map entries for the student's tries, codeHash
+ *   When reading student problems each one is a row in the SubmissionStore
+ *     (Problem objects are only made for printing and flags)
  *     
  *   When printing out the problems it will do analysis across all students and
  *     fill the problem Maps with all student codeHash (as well as known cheaters)
@@ -44,9 +60,11 @@ class Problem implements Comparable<Problem> {
     private boolean ifCompleted; // Successfully completed
     private LocalDateTime date; // timestamp when completed
     private Map<String, Integer> tries; // map of userName -> number of attempts on problem
-    private Map<String, Integer> codeHash; // map of userName -> hash value of problem
+    private Map<String, Long> codeHash; // map of userName -> CodeFingerprint of problem
+    private Map<String, long[]> kgrams; // map of userName -> Winnower fingerprints of problem
     private Map<String, Long> times; // map of userName -> seconds to do problem
-    private String redFlag; // code that's a red flag for cheating
+    private List<String> redFlags; // code that's a red flag for cheating
+    private RedFlagScanner redFlagScanner; // redFlags compiled, null if none
 
     // Set this to problem number & student to output the hash values for the cheater files & a student
     static boolean ifDebugHash = false;
@@ -74,9 +92,11 @@ class Problem implements Comparable<Problem> {
         this.ifCompleted = ifCompleted;
         this.date = date;
         this.tries = new HashMap<String, Integer>();
-        this.codeHash = new HashMap<String, Integer>();
+        this.codeHash = new HashMap<String, Long>();
+        this.kgrams = new HashMap<String, long[]>();
         this.times = new HashMap<String, Long>();
-        this.redFlag = null;
+        this.redFlags = new ArrayList<String>();
+        this.redFlagScanner = null;
         this.name = name;
     }
 
@@ -138,24 +158,55 @@ class Problem implements Comparable<Problem> {
         this.ifCompleted = ifCompleted;
     }
     
+    /**
+     * Packed type/chapter/number - see ProblemKey
+     */
+    public int getKey() {
+        return ProblemKey.of(type, chapter, number);
+    }
+
     public Map<String, Integer>getTries() {
         return this.tries;
     }
 
-    public Map<String, Integer> getCodeHash() {
+    public Map<String, Long> getCodeHash() {
         return this.codeHash;
     }
 
+    public Map<String, long[]> getKGrams() {
+        return this.kgrams;
+    }
+
     public Map<String, Long> getTimes() {
         return this.times;
     }
 
-    public String getRedFlag() {
-        return this.redFlag;
+    public List<String> getRedFlags() {
+        return this.redFlags;
     }
 
-    public void setRedFlag(String redFlag) {
-        this.redFlag = redFlag;
+    /**
+     * Adds a red flag, compileRedFlags must be called before scanning
+     * 
+     * @param redFlag
+     */
+    public void addRedFlag(String redFlag) {
+        this.redFlags.add(redFlag);
+        this.redFlagScanner = null;
+    }
+
+    /**
+     * Compiles the red flags into a RedFlagScanner for getRedFlagScanner
+     */
+    public void compileRedFlags() {
+        this.redFlagScanner = this.redFlags.isEmpty() ? null : new RedFlagScanner(this.redFlags);
+    }
+
+    /**
+     * @return compiled red flags or null if there are none
+     */
+    public RedFlagScanner getRedFlagScanner() {
+        return this.redFlagScanner;
     }
 
     @Override
@@ -212,6 +263,14 @@ class Problem implements Comparable<Problem> {
 
     }
 
+    /**
+     * Consistent with equals - type, chapter & number
+     */
+    @Override
+    public int hashCode() {
+        return getKey();
+    }
+
     /**
      * splitProblemNumber
      * 
@@ -223,21 +282,11 @@ class Problem implements Comparable<Problem> {
      *      int array[1] = verse.  If problem = 11a (or any 2 digit + a/b/c...), problem reassigned 100 + 11 + 1=a,2=b
      */
     public static int[] splitProblemNumber(String token) {
-        int[] chapterVerse = new int[2];
-        String[] problem = token.split("[ .:]+");
-        if (problem[0].length() == 2 && problem[0].charAt(1) == 'G') {
-            // this must be Chapter 3G
-            // Currently chapters can only be integers, so assign it chapter 20
-            chapterVerse[0] = 20;
-        } else
-            chapterVerse[0] = Integer.parseInt(problem[0]);
-        if (problem[1].length() == 3 && !Character.isDigit(problem[1].charAt(2))) {
-            // this must be a problem 11a, etc
-            // Currently problems can only be integers, so assign it problem 100+11+a=1,b=2,etc
-            chapterVerse[1] = 100 + Integer.parseInt(problem[1].substring(0, 2)) + problem[1].charAt(2) - 'a';
-        } else
-            chapterVerse[1] = Integer.parseInt(problem[1]);
-        return chapterVerse;
+        // ProblemKey.parse does the 3G & 11a remapping
+        int key = ProblemKey.parse(false, token, 0, token.length());
+        if (key == ProblemKey.NONE)
+            throw new NumberFormatException("Not a problem number: " + token);
+        return new int[] {ProblemKey.chapter(key), ProblemKey.number(key)};
     }
 
     /**
@@ -251,9 +300,9 @@ class Problem implements Comparable<Problem> {
      *  SC 1.1 SC 1.5 SC 1.7 Ex 1.1 Ex 1.2 Ex 1.10
      * 
      * @return ArrayList of Problems assigned
-     * @throws FileNotFoundException
+     * @throws IOException
      */
-    public static ArrayList<Problem> readAssignedProblems() throws FileNotFoundException {
+    public static ArrayList<Problem> readAssignedProblems() throws IOException {
         // If "Assigned Problems.txt" exists, load it, use it at end in printing
         // Exercise  9:11  9:4  9:9 Self-Check  9:10  9:3  9:8  9:9 
         // SC 1:2 3:4 Ex 5:6 7:8
@@ -276,7 +325,12 @@ class Problem implements Comparable<Problem> {
                 else 
                 {
                     int[] chapterVerse = Problem.splitProblemNumber(token);
-                    problemList.add(new Problem(problemType, chapterVerse[0], chapterVerse[1]));
+                    Problem assigned = new Problem(problemType, chapterVerse[0], chapterVerse[1]);
+                    // name it from the catalog of BJP problems
+                    int id = ProblemCatalog.getDefault().findKey(assigned.getKey());
+                    if (id != -1)
+                        assigned.setName(ProblemCatalog.getDefault().getName(id));
+                    problemList.add(assigned);
                 }
                 // this is for the next outer loop
                 token = scProblems.hasNext() ? scProblems.next() : null;
@@ -285,91 +339,21 @@ class Problem implements Comparable<Problem> {
         }
         
         ////////////////////////////////////////////////////////////////////
-        // Read file of cheater problems
-        //
-        // Cheaters.txt
-        //
-        // **userName Exercise 12:18 result.lastIndexOf
-        // public static void waysToClimb(int n) {
-        //     waysToClimb(n, 0, "[");
-        // }
-        //
-        // ** flags beginning of line
-        // last single token (no whitespace) is a red flag for cheaters
-        // code will continue until next ** at head of line
+        // Load cheater problems from the compiled index of Cheaters.txt
+        //   (see CheaterCorpus for the format) - only the assigned problems are decoded
         ////////////////////////////////////////////////////////////////////
-        File fCheaters = new File("Cheaters.txt");
-        if (fCheaters.canRead()) {
-            Scanner scCheaters = new Scanner (fCheaters);
-            String type = null;
-            int[] chapterVerse = null; // Used as flag for reading code
-            String userName = null;
-            int codeHash = 0;
-            String redFlag = null;
-            while (scCheaters.hasNextLine()) {
-                String line = scCheaters.nextLine();
-
-                //////////////////////////////////////////////////////////////
-                // Starting New Problem 
-                //   "**" <username> <Exercise | Self-Check> <Chapter>:<Verse> <redFlag>                    
-                //////////////////////////////////////////////////////////////
-                if (line.length() >= 2 && line.indexOf("**") == 0) {
-                    ///////////////////////////////////
-                    // End of code - store codeHash & redFlags into assigned problem  
-                    ///////////////////////////////////
-                    if (chapterVerse != null) {
-                        // create temp problem just to find it in list of assigned
-                        int index = problemList.indexOf(new Problem(type, chapterVerse[0], chapterVerse[1]));
-                        if (index != -1) { // maybe it's not assigned
-                            problemList.get(index).getCodeHash().put(userName,  codeHash);
-                            if (redFlag != null)
-                                problemList.get(index).setRedFlag(redFlag);
-                        }
-                        redFlag = null;
-                        codeHash = 0;
-                        chapterVerse = null;
-                    }
-                    
-                    // read fields for new problem
-                    Scanner sc = new Scanner(line);
-                    userName = sc.next();
-                    type = sc.next();
-                    // validate type
-                    if (!type.equals("Self-Check") && !type.equals("Exercise")) {
-                        System.out.println("ERROR - expecting new problem, found " + userName + type);
-                    }
-                    chapterVerse = Problem.splitProblemNumber(sc.next());
-                    
-                    ///////////////////////////////////
-                    // redFlag is optional last argument
-                    ///////////////////////////////////
-                    if (sc.hasNext()) {
-                        redFlag = sc.next();
-                        // grab everything between quotes if they exist
-                        if (redFlag.startsWith("\"")) {
-                            int first = line.indexOf(redFlag);
-                            int last = line.lastIndexOf('"');
-                            if (last == -1 || last == first)
-                                System.out.printf("ERROR: cheater %s missing end quote for red flag %s",userName, line);
-                            redFlag = line.substring(line.indexOf(redFlag)+1, line.lastIndexOf('"'));
-                        } else
-                        // verify that this is the end of the line
-                        if (sc.hasNext())
-                            System.out.printf("ERROR: unexpected %s in cheaters.txt\n", sc.next());
-                    }
-                } else {
-                    // validate that we aren't missing a problem declaration
-                    if (chapterVerse == null)
-                        System.out.printf("ERROR: expected new problem **username but found %s\n", line);
-                    codeHash += computeCodeHash(line, false, false);
-                    
-                    // debughash breakpoint - enable to see why hash doesn't match student
-                    if (ifDebugHash && chapterVerse[0] == chapterDebugHash && chapterVerse[1] == problemDebugHash 
-                            && type.equals("Exercise") && userName.equals(cheaterDebugHash))
-                        System.out.printf("cheater %s Ex %d.%d codehash %d\n", userName, chapterVerse[0], chapterVerse[1], codeHash);
-                } // end in code
-            } // end line
-        } // end reading cheaters
+        CheaterCorpus corpus = CheaterCorpus.load(Paths.get("Cheaters.txt"));
+        if (corpus != null) {
+            for (Problem assigned : problemList) {
+                for (CheaterCorpus.Entry cheat : corpus.get(assigned.getKey())) {
+                    assigned.getCodeHash().put(cheat.userName, cheat.codeHash);
+                    assigned.getKGrams().put(cheat.userName, cheat.kgrams);
+                    for (String redFlag : cheat.redFlags)
+                        assigned.addRedFlag(redFlag);
+                }
+                assigned.compileRedFlags();
+            }
+        }
         return problemList;
     }
 
@@ -430,20 +414,40 @@ class Problem implements Comparable<Problem> {
      * @param fRemoveLeadingQuote - line starts with a leading quote eg "public static void main
      * @param fRemoveTrailingQuote - line ends with a trailing quote eg }"
      */
-    public static int computeCodeHash(String line, boolean fRemoveLeadingQuote, boolean fRemoveTrailingQuote) {
-        int codeHash = 0;
+    public static long computeCodeHash(String line, boolean fRemoveLeadingQuote, boolean fRemoveTrailingQuote) {
         if (fRemoveLeadingQuote || fRemoveTrailingQuote)
             line = line.substring((fRemoveLeadingQuote ? 1 : 0), line.length() - (fRemoveTrailingQuote ? 1 : 0));
         line = line.replace("\"\"", "\"");
-        Scanner scCode = new Scanner (line);
-        while (scCode.hasNext()) {
-            String token = scCode.next();
-            codeHash += token.hashCode();
-        }
+        return computeCodeHash(line, 0, line.length());
+    }
 
-        return codeHash;
+    /**
+     * Computes the hash value for already unescaped code, e.g. a whole Solution Code field
+     *   CodeFingerprint of the Java tokens - comments & whitespace don't change it, token order does
+     *   Identifiers & literals are normalized if PracticeItGrader.ifNormalizeCode
+     * 
+     * @param code - chars to hash, may span many lines
+     * @param start - first char
+     * @param end - one past the last char
+     * @return 64 bit fingerprint, 0 if there's no code
+     */
+    public static long computeCodeHash(CharSequence code, int start, int end) {
+        return computeCodeHash(code, start, end, null);
     }
-    
+
+    /**
+     * Computes the hash value for already unescaped code and its k-gram fingerprints in one pass
+     * 
+     * @param code - chars to hash, may span many lines
+     * @param start - first char
+     * @param end - one past the last char
+     * @param winnower - fed the tokens, identifiers normalized, may be null
+     * @return 64 bit fingerprint, 0 if there's no code
+     */
+    public static long computeCodeHash(CharSequence code, int start, int end, Winnower winnower) {
+        return CodeFingerprint.of(code, start, end, PracticeItGrader.ifNormalizeCode, winnower);
+    }
+
     /**
      * readProblems - reads all problems from PracticeIt student results, stores into class arrays
      * 
@@ -451,37 +455,112 @@ class Problem implements Comparable<Problem> {
      *        "Username","Last","First","Problem","Solved?","Date/Time","Tries","Solution Code"
      *             0        1      2        3         4         5          6         7
      *        "abcmoney6","Doe","John","BJP4 Exercise 8.07: addTimeSpan","No","2019-09-25 16:45:33","1","//test code"
-     * After header is usually code lines which are skipped
+     * Solution Code is usually many lines long, CsvReader returns it as one field
+     * PracticeItGrader.ifMemoryMapped switches to MappedCsvReader for exports too big to stream comfortably
+     * PracticeItGrader.ifParallel parses byte ranges of the file on all cores (ParallelCsvParser)
      * 
      * @param studentList - list of students we want to read problems for, all others ignored
      * @param assignedProblems - assigned Problems - needed to watch for red flags
      */
-    public static ArrayList<Student> readProblems(
-            ArrayList<Student> studentList,
-            ArrayList<Problem> assignedProblems) throws FileNotFoundException {
-        boolean ifInCode = false;
-        int problemNum = 1;
-        String line; // raw line
-        String results[]; // split line
-        String ignoredStudent = "";   // debug only
-        PrintStream ps = null;
-        String redFlag = null;
+    public static StudentRegistry readProblems(
+            StudentRegistry studentList,
+            ArrayList<Problem> assignedProblems) throws IOException {
+        return readProblems(Paths.get("practice-it.csv"), studentList, assignedProblems);
+    }
 
+    /**
+     * readProblems from any export rather than practice-it.csv, e.g. a generated one for Benchmark
+     * 
+     * @param source - PracticeIt CSV export
+     * @param studentList - list of students we want to read problems for, all others ignored
+     * @param assignedProblems - assigned Problems - needed to watch for red flags
+     */
+    public static StudentRegistry readProblems(
+            Path source,
+            StudentRegistry studentList,
+            ArrayList<Problem> assignedProblems) throws IOException {
         if (PracticeItGrader.ifDebug) {
             System.out.println();
             System.out.println("readProblems Begin");
         }
+        ignoredStudent = "";
 
         // If no list of class members, must initialize this 
         Boolean ifClassList = studentList == null ? false : true;
         if (studentList == null)
-            studentList = new ArrayList<Student>();
+            studentList = new StudentRegistry();
 
-        File f = new File("practice-it.csv");
+        File f = source.toFile();
         if (!f.canRead()) {
             System.out.println("Can't find file");
         }
-        Scanner sc = new Scanner(f);
+        ProblemIndex assignedIndex = new ProblemIndex(assignedProblems);
+        // identical code is only fingerprinted once, in whatever mode it's read
+        CodeCache codes = PracticeItGrader.ifDedupCode ? new CodeCache() : null;
+
+        if (PracticeItGrader.ifIncremental && !PracticeItGrader.ifEncrypt) {
+            ///////////////////////////////////////////////////////
+            // Incremental - cached submissions, then only the records added since the last run
+            //   encrypting writes every record so it reads the whole file
+            ///////////////////////////////////////////////////////
+            readProblemsIncremental(source, studentList, ifClassList, assignedIndex, assignedProblems, codes);
+        } else if (PracticeItGrader.ifParallel && !PracticeItGrader.ifEncrypt) {
+            ///////////////////////////////////////////////////////
+            // Parallel - chunks are parsed on all cores then added in file order
+            //   so the results are identical to reading sequentially
+            //   encrypting writes the file in order so it stays sequential
+            ///////////////////////////////////////////////////////
+            List<List<Submission>> chunks = ParallelCsvParser.parse(source, assignedIndex, codes);
+            for (List<Submission> chunk : chunks) {
+                for (Submission sub : chunk)
+                    addSubmission(studentList, ifClassList, sub);
+            }
+        } else if (PracticeItGrader.ifPipelined) {
+            ///////////////////////////////////////////////////////
+            // Pipelined - reading, parsing & writing the encrypted file overlap
+            //   batches are added in file order, the results are the same
+            ///////////////////////////////////////////////////////
+            OutputStream encrypted = PracticeItGrader.ifEncrypt
+                    ? new BufferedOutputStream(new FileOutputStream("Encrypted Results.txt")) : null;
+            try {
+                new IngestPipeline(source, assignedIndex, codes, PracticeItGrader.ifEncrypt).read(studentList, ifClassList, encrypted);
+            } finally {
+                if (encrypted != null)
+                    encrypted.close();
+            }
+        } else {
+            readProblemsSequential(source, studentList, ifClassList, assignedIndex, codes);
+        }
+
+        if (PracticeItGrader.ifDebug) {
+            printCodeCache(codes);
+            System.out.println();
+            System.out.println("readProblems End");
+        }
+
+        return studentList;     // in case it was null to being with
+    }
+
+    /**
+     * Reads every record one after the other, streamed (CsvReader) or memory mapped (MappedCsvReader)
+     *   also writes "Encrypted Results.txt" when encrypting
+     * 
+     * @param source - practice-it.csv
+     * @param studentList - list of students we want to read problems for, all others ignored
+     * @param ifClassList - false if studentList is being built from the results
+     * @param assignedIndex - assigned problems by key
+     * @param codes - results of each distinct Solution Code, may be null
+     */
+    private static void readProblemsSequential(
+            Path source,
+            StudentRegistry studentList,
+            boolean ifClassList,
+            ProblemIndex assignedIndex,
+            CodeCache codes) throws IOException {
+        PrintStream ps = null;
+
+        // Very large exports can be memory mapped instead of streamed
+        CsvSource csv = PracticeItGrader.ifMemoryMapped ? new MappedCsvReader(source) : new CsvReader(source);
 
         // If we're encrypting the student usernames, write the file out
         if (PracticeItGrader.ifEncrypt) {
@@ -490,241 +569,333 @@ class Problem implements Comparable<Problem> {
         }
 
         // get headers & verify
-        line = sc.nextLine(); 
-        results = line.split("[,]+");
-        if (results.length != 8 || 
-                !stripQuotes(results[CSV.USER.ordinal()]).equals("Username") ||
-                !stripQuotes(results[CSV.LAST.ordinal()]).equals("Last") ||
-                !stripQuotes(results[CSV.CODE.ordinal()]).equals("Solution Code"))
-            System.out.printf("readProblems expected first line to be headers but found %s",line);
-
-        // These variables can exist between lines if we're scanning code lines
-        Problem currentProblem = null;
-        String userName = null;
-        int[] chapterVerse = new int[2];
-        int codeHash = 0; // hash of code
-        String type = null;
-        int studentNum = -1;
-        int codeLength = 0;
-        
-        // Loop through all lines
-        while (sc.hasNextLine()) {
-            ///////////////////////////////////////////////////////
-            // Read lines
-            ///////////////////////////////////////////////////////
+        readHeader(csv);
+        if (PracticeItGrader.ifEncrypt)
+            writeRecord(ps, csv);
+
+        // Loop through all records - one record is one student problem including all its code lines
+        Submission sub = new Submission();
+        while (csv.next()) {
+            if (!parseRecord(csv, assignedIndex, sub, null, codes))
+                continue;
+
+            // if encrypting, output the record but replace student names with encrypted
+            if (PracticeItGrader.ifEncrypt)
+                writeEncryptedRecord(ps, csv);
+
+            // LAST & FIRST are only decoded when a student is first seen
+            if (PracticeItGrader.ifDebug || (!ifClassList && !studentList.contains(sub.userName))) {
+                sub.lastName = csv.fieldString(CSV.LAST.ordinal());
+                sub.firstName = csv.fieldString(CSV.FIRST.ordinal());
+            }
+            addSubmission(studentList, ifClassList, sub);
+        }
+        csv.close();
+        if (ps != null)
+            ps.close();
+    }
 
-            line = sc.nextLine();
-            // debugging help - put the item item # here and set breakpoint 
-//            if (problemNum == 246)
-//             System.out.println(line);               
-
-            // If we're in code, need to skip lines.
-            if (ifInCode) {
-                // debugging for codehash for a particular student & problem
-//                if (fInProblem(currentProblem, 12, 18)  && userName.equals("studentname")) {
-//                    System.out.println("breakpoint");
-//                }
-                
-                //////////////////////////////////////////////////////////////
-                //   Code ends with a line ending in one quote
-                //////////////////////////////////////////////////////////////
-                if (line.length() != 0) {
-                    if (line.charAt(line.length()-1) == '"' &&
-                            line.charAt(line.length()-2) != '"') {
-                        ////////////////////////////////////////
-                        // Store code hash of this problem
-                        ////////////////////////////////////////
-                        codeHash += computeCodeHash(line, false, true);
-                        codeLength += line.length();
-                        // If you want to remove short code lengths, use this but it makes
-                        //   it harder to catch cheating for large datasets
-//                        if (codeLength < 200)
-//                            codeHash = 0;
-                        currentProblem.getCodeHash().put(userName,  codeHash);
-                        
-                        // 1 of 3 debughash printing to determine why codeHash doesn't match cheater
-                        if (ifDebugHash && chapterVerse[0] == chapterDebugHash && chapterVerse[1] == problemDebugHash && type.equals("Exercise") && userName.equals(userDebugHash))
-                            System.out.printf("user %s Ex %d.%d codeHash %d\n", userName, chapterVerse[0], chapterVerse[1], codeHash);
-                            
-                        // reset code status
-                        codeHash = 0;
-                        redFlag = null;
-                        ifInCode = false;
-                        codeLength = 0;
-                    } else {
-                        // calculate code has by adding hash of each token
-                        codeHash += computeCodeHash(line, false, false);
-                        codeLength += line.length();
-                        
-                        // 2 of 3 debughash printing to determine why codeHash doesn't match cheater
-                        if (ifDebugHash && chapterVerse[0] == chapterDebugHash && chapterVerse[1] == problemDebugHash && type.equals("Exercise") && userName.equals(userDebugHash))
-                            System.out.printf("user %s Ex %d.%d codeHash %d\n", userName, chapterVerse[0], chapterVerse[1], codeHash);
+    /**
+     * Reads only the records added since the last run (GradingCache)
+     *   the cached submissions are added first, then the rest of the export is parsed and the cache updated
+     *   if the export doesn't start with what was cached it's all parsed, reusing the code results
+     *   of records that are still there
+     * 
+     * @param source - practice-it.csv
+     * @param studentList - list of students we want to read problems for, all others ignored
+     * @param ifClassList - false if studentList is being built from the results
+     * @param assignedIndex - assigned problems by key
+     * @param assignedProblems - assigned Problems - their red flags are part of the cache settings
+     * @param codes - results of each distinct Solution Code, may be null
+     */
+    private static void readProblemsIncremental(
+            Path source,
+            StudentRegistry studentList,
+            boolean ifClassList,
+            ProblemIndex assignedIndex,
+            ArrayList<Problem> assignedProblems,
+            CodeCache codes) throws IOException {
+        GradingCache cache = GradingCache.load(source, assignedProblems);
+        for (Submission sub : cache.getSubmissions())
+            addSubmission(studentList, ifClassList, sub);
+        int cached = cache.getSubmissions().size();
+
+        long parsedLength = cache.getParsedLength();
+        try (MappedCsvReader csv = new MappedCsvReader(source, parsedLength, -1)) {
+            if (parsedLength == 0) {
+                readHeader(csv);
+                parsedLength = csv.getPosition();
+            }
+            while (csv.next()) {
+                // a record without its line break may still be being written, it's parsed again next time
+                boolean ifComplete = csv.endsWithLineBreak();
+                Submission sub = new Submission();
+                if (parseRecord(csv, assignedIndex, sub, cache, codes)) {
+                    if (PracticeItGrader.ifDebug || !cache.hasUser(sub.userName)) {
+                        sub.lastName = csv.fieldString(CSV.LAST.ordinal());
+                        sub.firstName = csv.fieldString(CSV.FIRST.ordinal());
                     }
-                } 
-                ////////////////////////////////////
-                // check for any red flags
-                ////////////////////////////////////
-                if (redFlag != null && line.contains(redFlag)) {
-                    PracticeItGrader.flagCheater(studentList, userName, currentProblem, "Red Flag");
+                    addSubmission(studentList, ifClassList, sub);
+                    if (ifComplete)
+                        cache.add(sub);
                 }
-
-                // If encrypting file, still need to output code lines
-                if (PracticeItGrader.ifEncrypt && ifInCode)
-                    ps.println(line);
-
-                continue; // go to next line
-            } // end code 
-            
-            // Print out each problem header
-            if (PracticeItGrader.ifDebug) {
-                System.out.printf("%d, %s\n", problemNum, line);
-                // Enable this to stop at a particular line
-//                if (problemNum == 2469)
-//                    System.out.println("Breakpoint here");
+                if (ifComplete)
+                    parsedLength = csv.getPosition();
             }
-            
-            ///////////////////////////////////////////////////////
-            // Code starts by ending a line without a quote
-            ///////////////////////////////////////////////////////
-            if (line.charAt(line.length()-1) != '"' 
-                    //   except for the weird case where it just has a single quote to open the code on next line
-                    //   which we can identify by a comma right before the quote
-                    || line.charAt(line.length()-2) == ',' 
-                    //   or the line ends with a double ""
-                    || line.charAt(line.length()-2) == '"') {
-                ifInCode = true;
-                codeHash = 0;
-            }
-            problemNum++;
+        }
+        if (PracticeItGrader.ifDebug)
+            System.out.printf("readProblems %d cached submissions, %d parsed\n", cached, cache.getSubmissions().size() - cached);
+        cache.save(source, parsedLength);
+    }
 
-            ///////////////////////////////////////////////////////
-            // Split header into fields needed to construct Student & Problem 
-            ///////////////////////////////////////////////////////
+    // Debug only - how much Solution Code was a copy
+    private static void printCodeCache(CodeCache codes) {
+        if (codes != null)
+            System.out.printf("readProblems %d distinct solutions, %d copies reused\n", codes.size(), codes.getHits());
+    }
 
-            // Format of line
-            // 
-            // This is the new CSV format that we are given
-            // "Username","Last","First","Problem","Solved?","Date/Time","Tries","Solution Code"
-            // New  0        1      2        3         4         5          6         7
-            // "abcmoney6","Doe","John","BJP4 Exercise 8.07: addTimeSpan","No","2019-09-25 16:45:33","1","//test code"
-
-            // Split header into fields and strip quotes
-            results = line.split("[,]+");
-            for (int index = CSV.USER.ordinal(); index < CSV.CODE.ordinal(); index++)
-                results[index] = stripQuotes(results[index]);
-
-            // Field USER, LAST, FIRST used directly
-            userName = results[CSV.USER.ordinal()];
-            String lastName = results[CSV.LAST.ordinal()];
-            String firstName = results[CSV.FIRST.ordinal()];
-            int tries = Integer.parseInt(results[CSV.TRIES.ordinal()]);
-
-            // if encrypting, output the line but replace student names with encrypted
-            if (PracticeItGrader.ifEncrypt) {
-                line = line.replace(userName, Student.toHash(userName));
-                line = line.replace(lastName, Student.toHash(lastName));
-                line = line.replace(firstName, Student.toHash(firstName));
-                ps.println(line);
-            }
+    // Debug only - last student name printed by addSubmission
+    private static String ignoredStudent = "";
+
+    /**
+     * Reads and verifies the header record
+     *   "Username","Last","First","Problem","Solved?","Date/Time","Tries","Solution Code"
+     * 
+     * @param csv - positioned before the first record
+     * @throws IOException
+     */
+    public static void readHeader(CsvSource csv) throws IOException {
+        if (!csv.next() || csv.fieldCount() != 8 || 
+                !csv.fieldEquals(CSV.USER.ordinal(), "Username") ||
+                !csv.fieldEquals(CSV.LAST.ordinal(), "Last") ||
+                !csv.fieldEquals(CSV.CODE.ordinal(), "Solution Code"))
+            System.out.printf("readProblems expected first line to be headers but found %s\n", 
+                    csv.fieldCount() > 0 ? csv.fieldString(0) : "");
+    }
 
-            type = splitPIProblem(results, chapterVerse);
-
-            // Field SOLVED is either Y or N
-            Boolean comp = results[CSV.SOLVED.ordinal()].toUpperCase().charAt(0) == 'Y';
-
-            // Field DATETIME, TRIES, CODE unused at this time
-            // Eventually we should examine DATETIME to find average time taken & unusual times
-            
-            // calculate code hash by adding hash of each token
-            String code = results[CSV.CODE.ordinal()];
-            // a comma inside the code quote will fool the splitter - concat extra params
-            if (results.length > CSV.CODE.ordinal()+1) {
-                int index = CSV.CODE.ordinal()+1;
-                while (index < results.length) {
-                    code += ", " + results[index++];
+    /**
+     * Decodes the current record into a Submission
+     *   Solution Code is hashed and checked for red flags where it sits, it is never copied
+     *   the code results are taken from the cache if it has the same record, or from codes if
+     *   an identical Solution Code was already parsed
+     *   LAST & FIRST are left null - they're only needed the first time a student is seen
+     *   
+     * This only reads assignedIndex & cache and codes is thread safe, so it is safe to call from
+     *   several threads at once
+     * 
+     * Format of record
+     * "Username","Last","First","Problem","Solved?","Date/Time","Tries","Solution Code"
+     *      0        1      2        3         4         5          6         7
+     * "abcmoney6","Doe","John","BJP4 Exercise 8.07: addTimeSpan","No","2019-09-25 16:45:33","1","//test code"
+     * 
+     * @param csv - positioned on a record
+     * @param assignedIndex - assigned Problems - needed to watch for red flags
+     * @param sub - filled in with the fields of the record
+     * @param cache - earlier results of the same records, may be null
+     * @param codes - results of each distinct Solution Code so far, may be null
+     * @return false if the record is malformed and should be skipped
+     */
+    public static boolean parseRecord(CsvSource csv, ProblemIndex assignedIndex, Submission sub, GradingCache cache,
+            CodeCache codes) {
+        if (csv.fieldCount() != 8) {
+            System.out.printf("ERROR: record %d has %d fields, expected 8\n", csv.getRecordNumber(), csv.fieldCount());
+            return false;
+        }
+
+        // Field PROBLEM is looked up in the catalog of BJP problems, one probe
+        ProblemCatalog catalog = ProblemCatalog.getDefault();
+        int problemId = csv.fieldId(CSV.PROBLEM.ordinal(), catalog);
+
+        // Print out each problem header
+        if (PracticeItGrader.ifDebug) {
+            String[] results = new String[CSV.CODE.ordinal()];
+            for (int index = 0; index < CSV.CODE.ordinal(); index++)
+                results[index] = csv.fieldString(index);
+            System.out.printf("%d, %s\n", csv.getRecordNumber(), String.join(",", results));
+        }
+
+        // Field USER is the only one decoded on every record - the rest are read in place
+        sub.userName = csv.fieldString(CSV.USER.ordinal());
+        sub.lastName = null;
+        sub.firstName = null;
+        sub.tries = csv.fieldInt(CSV.TRIES.ordinal());
+
+        if (problemId != -1 && catalog.isStandard(problemId)) {
+            sub.type = catalog.getType(problemId);
+            sub.key = catalog.getKey(problemId);
+            sub.chapter = ProblemKey.chapter(sub.key);
+            sub.number = ProblemKey.number(sub.key);
+        } else {
+            // not a problem we know - split up the descriptor
+            String[] results = new String[CSV.CODE.ordinal()];
+            results[CSV.PROBLEM.ordinal()] = csv.fieldString(CSV.PROBLEM.ordinal());
+            int[] chapterVerse = new int[2];
+            sub.type = splitPIProblem(results, chapterVerse);
+            sub.chapter = chapterVerse[0];
+            sub.number = chapterVerse[1];
+            sub.key = ProblemKey.of(sub.type, sub.chapter, sub.number);
+        }
+
+        // Field SOLVED is either Y or N
+        sub.ifCompleted = csv.fieldYes(CSV.SOLVED.ordinal());
+
+        // Get time problem was submitted - straight to epoch seconds
+        sub.time = csv.fieldEpochSeconds(CSV.DATETIME.ordinal());
+
+        ////////////////////////////////////////////////////////////
+        // compute code hash on the whole Solution Code to check for cheating
+        //   commas & quotes inside the code are already handled by the reader
+        //   assigned exercises also keep k-gram fingerprints to find similar code
+        ////////////////////////////////////////////////////////////
+        Problem assigned = assignedIndex.get(sub.key);
+        Submission previous = cache != null ? cache.previous(sub) : null;
+        if (previous != null) {
+            // same record as last run - skip hashing & scanning the code
+            sub.codeHash = previous.codeHash;
+            sub.kgrams = previous.kgrams;
+            sub.redFlagLines = previous.redFlagLines;
+            sub.redFlags = previous.redFlags;
+            return true;
+        }
+        // identical code seen before - its results are reused, only what it lacks is computed
+        boolean ifKGrams = assigned != null && assigned.getType().equals("Exercise");
+        CodeCache.Digest digest = codes != null ? csv.fieldDigest(CSV.CODE.ordinal()) : null;
+        CodeCache.Entry known = digest != null ? codes.get(digest) : null;
+        if (known != null && (!ifKGrams || known.kgrams != null)) {
+            sub.codeHash = known.codeHash;
+            sub.kgrams = ifKGrams ? known.kgrams : null;
+        } else {
+            Winnower winnower = ifKGrams ? new Winnower() : null;
+            sub.codeHash = csv.codeHash(CSV.CODE.ordinal(), winnower);
+            sub.kgrams = winnower != null ? winnower.finish() : null;
+        }
+
+        // debughash printing to determine why codeHash doesn't match cheater
+        if (ifDebugHash && sub.chapter == chapterDebugHash && sub.number == problemDebugHash && sub.type.equals("Exercise") && sub.userName.equals(userDebugHash))
+            System.out.printf("user %s Ex %d.%d codeHash %d\n", sub.userName, sub.chapter, sub.number, sub.codeHash);
+
+        // check for all red flags of the assigned problem in one pass - once per line of code per red flag
+        sub.redFlagLines = 0;
+        sub.redFlags = null;
+        RedFlagScanner scanner = assigned != null ? assigned.getRedFlagScanner() : null;
+        int[] lines = null;
+        if (scanner != null) {
+            lines = known != null && known.scanner == scanner ? known.redFlagLines
+                    : csv.scanRedFlags(CSV.CODE.ordinal(), scanner);
+            sub.redFlagLines = RedFlagScanner.total(lines);
+            if (sub.redFlagLines > 0) {
+                List<String> found = new ArrayList<String>();
+                for (int i = 0; i < lines.length; i++) {
+                    if (lines[i] > 0)
+                        found.add(scanner.getRedFlags()[i]);
                 }
+                sub.redFlags = found.toArray(new String[0]);
             }
-            // validate and remove leading double quote on first line of code
-            if (code == null || code.charAt(0) != '"') {
-                System.out.println("Error: Code should start with \" but instead found " + code);
-            }
+        }
 
-            ////////////////////////////////////////////////////////////
-            // compute code hash on initial line to check for cheating
-            ////////////////////////////////////////////////////////////
-            if (code.length() > 1) {  // line could start or end without any code 
-                // Validate that it's just a quote
-                if (code.charAt(0) != '"')
-                    System.out.println("ERROR: Expected only char on code line was quote but found " + code.charAt(0) + " on line " + line);
-                codeHash += computeCodeHash(code, true, false);
-                codeLength += code.length();
-            }
-            // 3 of 3debughash printing to determine why codeHash doesn't match cheater
-            if (ifDebugHash && chapterVerse[0] == chapterDebugHash && chapterVerse[1] == problemDebugHash && type.equals("Exercise") && userName.equals(userDebugHash))
-                System.out.printf("user %s Ex %d.%d codeHash %d\n", userName, chapterVerse[0], chapterVerse[1], codeHash);
-            
-            ///////////////////////////////////////////////////////
-            // Done reading the file, now creating data structures 
-            ///////////////////////////////////////////////////////
-            
-            // heavy debugging - print out parsed fields
-            // System.out.printf("user=%s, first=%s, last=%s, type=%s, chapter=%d, verse=%d, solved=%b\n", userName, firstName, lastName, type, chapterVerse[0], chapterVerse[1], comp);
-
-            // build or lookup the student
-            Student s = new Student(userName, firstName, lastName);
-            studentNum = studentList.indexOf(s);
-            if (!ifClassList) {
-                if (studentNum == -1)
-                    // Build Class List if not supplied
-                    studentList.add(s);
-            } else {
-                // Print student's name once, skip repeats
-                if (PracticeItGrader.ifDebug && !s.getUserName().equalsIgnoreCase(ignoredStudent)) {
-                    if (ignoredStudent.length() != 0)
-                        // No need for line break after problems if this is the first student 
-                        System.out.println();
-                    System.out.println((studentNum == -1 ? "Skipping " : "Starting ") + s);
-                    // We don't want to see this student name anymore
-                    ignoredStudent = s.getUserName(); 
-                    // reset problem type for correct linebreaks
-                    // currentPIType = null; see below for old usage 
-                }
-                if (studentNum != -1)
-                    // Find existing student record
-                    s = studentList.get(studentNum);
+        // keep anything new for the next copy of this code
+        if (digest != null) {
+            CodeCache.Entry entry = known == null ? new CodeCache.Entry(sub.codeHash, sub.kgrams, scanner, lines)
+                    : known.with(sub.kgrams, scanner, lines);
+            if (entry != known)
+                codes.put(digest, entry);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a parsed submission to its student, building the class list if none was supplied
+     * 
+     * @param studentList - list of students we want to read problems for, all others ignored
+     * @param ifClassList - false if studentList is being built from the results
+     * @param sub - parsed record, LAST & FIRST must be filled in for a student not yet in studentList
+     */
+    public static void addSubmission(StudentRegistry studentList, boolean ifClassList, Submission sub) {
+        // heavy debugging - print out parsed fields
+        // System.out.printf("user=%s, type=%s, chapter=%d, verse=%d, solved=%b\n", sub.userName, sub.type, sub.chapter, sub.number, sub.ifCompleted);
+
+        // build or lookup the student
+        Student s = studentList.get(sub.userName);
+        if (!ifClassList) {
+            if (s == null) {
+                // Build Class List if not supplied
+                s = new Student(sub.userName, sub.firstName, sub.lastName);
+                studentList.add(s);
             }
-            
-            // Get time problem was submitted
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern ( "yyyy-MM-dd HH:mm:ss" , Locale.ENGLISH );
-            LocalDateTime date = LocalDateTime.parse(results[CSV.DATETIME.ordinal()], formatter);
-
-            // Add problem to the student
-            currentProblem = new Problem(type, chapterVerse[0], chapterVerse[1], comp, date);
-            if (studentNum != -1) {
-                s.getProblems().add(currentProblem);
+        } else {
+            // Print student's name once, skip repeats
+            if (PracticeItGrader.ifDebug && !sub.userName.equalsIgnoreCase(ignoredStudent)) {
+                if (ignoredStudent.length() != 0)
+                    // No need for line break after problems if this is the first student 
+                    System.out.println();
+                System.out.println((s == null ? "Skipping " : "Starting ") + new Student(sub.userName, sub.firstName, sub.lastName));
+                // We don't want to see this student name anymore
+                ignoredStudent = sub.userName; 
             }
+        }
 
-            //////////////////////////////////////////////////////////////////
-            // Cheat Checking
-            //////////////////////////////////////////////////////////////////
-            // Set number of tries
-            currentProblem.getTries().put(userName,  tries);
-
-            // If student has a one-liner this is the only place we store the codeHash
-            currentProblem.getCodeHash().put(userName,  codeHash);
+        // Students not in the class list are ignored
+        if (s == null)
+            return;
+
+        // Add problem to the student - tries & codeHash are kept for the cheat checks
+        int row = studentList.getSubmissions().add(s.getId(), sub.key, sub.ifCompleted, sub.time, sub.tries, sub.codeHash);
+        studentList.getSubmissions().setKGrams(row, sub.kgrams);
+
+        // Each line with a red flag is another strike
+        if (sub.redFlagLines > 0) {
+            if (PracticeItGrader.ifDebug)
+                System.out.printf("Red flags %s %s: %s\n", sub.userName, ProblemKey.toString(sub.key), Arrays.toString(sub.redFlags));
+            Problem currentProblem = new Problem(sub.type, sub.chapter, sub.number);
+            for (int count = sub.redFlagLines; count > 0; count--)
+                PracticeItGrader.flagCheater(studentList, sub.userName, currentProblem, "Red Flag");
+        }
+    }
 
-            // get any red flag string for the assigned problem - once per problem 
-            int assignedProbIndex = assignedProblems.indexOf(currentProblem);
-            if (assignedProbIndex != -1)
-                redFlag = assignedProblems.get(assignedProbIndex).getRedFlag();
+    /**
+     * Writes the current record to "Encrypted Results.txt" with the student names hashed
+     * 
+     * @param ps
+     * @param csv - positioned on a record that parsed
+     */
+    static void writeEncryptedRecord(PrintStream ps, CsvSource csv) {
+        String[] results = new String[CSV.CODE.ordinal()];
+        for (int index = CSV.USER.ordinal(); index < CSV.CODE.ordinal(); index++)
+            results[index] = csv.fieldString(index);
+        results[CSV.USER.ordinal()] = Student.toHash(results[CSV.USER.ordinal()]);
+        results[CSV.LAST.ordinal()] = Student.toHash(results[CSV.LAST.ordinal()]);
+        results[CSV.FIRST.ordinal()] = Student.toHash(results[CSV.FIRST.ordinal()]);
+        writeRecord(ps, results, csv.fieldString(CSV.CODE.ordinal()));
+    }
 
+    /**
+     * Writes the current CSV record back out with every field quoted
+     * 
+     * @param ps
+     * @param csv
+     */
+    static void writeRecord(PrintStream ps, CsvSource csv) {
+        for (int index = 0; index < csv.fieldCount(); index++) {
+            if (index != 0)
+                ps.print(',');
+            ps.print(CsvReader.quote(csv.fieldString(index)));
         }
-        if (PracticeItGrader.ifDebug) {
-            System.out.println();
-            System.out.println("readProblems End");
-        }
+        ps.println();
+    }
 
-        return studentList;     // in case it was null to being with
+    /**
+     * Writes a record from its header fields and code with every field quoted
+     * 
+     * @param ps
+     * @param results - fields USER..TRIES
+     * @param code - Solution Code
+     */
+    private static void writeRecord(PrintStream ps, String[] results, CharSequence code) {
+        for (String field : results) {
+            ps.print(CsvReader.quote(field));
+            ps.print(',');
+        }
+        ps.println(CsvReader.quote(code));
     }
     
     /**
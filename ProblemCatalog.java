@@ -0,0 +1,242 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Class ProblemCatalog
+ *
+ * Every BJP problem from "BJP Problem Names.csv", read once, each with a dense id 0 .. size()-1
+ *   carrying its ProblemKey (type, chapter & number) and name
+ *
+ *   BJP4 Exercise 8.7: addTimeSpan   ->  id 415   Exercise 8:7 addTimeSpan
+ *
+ * The descriptors are kept in an open addressing table hashed over their chars, so the Problem
+ *   field of a practice-it.csv record is resolved with one probe straight from the reader's buffer -
+ *   no split, no regex and no 3G/11a remapping per record.  Descriptors not in the catalog are left
+ *   to Problem.splitPIProblem as before.
+ *
+ * Shared by Problem.readProblems, Problem.readAssignedProblems (names of the assigned problems),
+ *   Cheaters.main / CorpusBuilder and DatasetGenerator
+ *
+ * Version 2.1 - 10/18/26 initial version, replaces CorpusBuilder & DatasetGenerator readProblemNames parsing
+ */
+class ProblemCatalog {
+    static final String PROBLEM_NAMES = "BJP Problem Names.csv";
+
+    private final List<String> descriptors = new ArrayList<String>(); // BJP4 Exercise 8.07: addTimeSpan
+    private final List<String> types = new ArrayList<String>();       // Exercise, Self-Check as written
+    private final List<String> numbers = new ArrayList<String>();     // 8.07, 3G.1, 5.11a as written
+    private final List<String> names = new ArrayList<String>();       // addTimeSpan
+    private int[] keys = new int[64];
+    private boolean[] ifStandard = new boolean[64]; // descriptor in the export's format, see isStandard
+    private int[] table = new int[0];               // id + 1 by descriptor hash, 0 is empty
+    private final Map<Integer, Integer> byKey = new HashMap<Integer, Integer>(); // ProblemKey -> first id
+
+    // Loaded from the working folder the first time it's needed - empty if the file isn't there
+    private static class Default {
+        static final ProblemCatalog CATALOG = loadDefault();
+    }
+
+    /**
+     * Reads a problem names file
+     *
+     *   BJP4 Exercise 8.07: addTimeSpan
+     *
+     * @param csv - BJP Problem Names.csv
+     * @throws IOException
+     * @throws NumberFormatException if a problem number can't be read
+     */
+    public static ProblemCatalog load(Path csv) throws IOException {
+        ProblemCatalog catalog = new ProblemCatalog();
+        for (String line : Files.readAllLines(csv, StandardCharsets.ISO_8859_1))
+            catalog.add(line.trim());
+        catalog.buildTable();
+        return catalog;
+    }
+
+    /**
+     * The catalog of "BJP Problem Names.csv" in the working folder, loaded once
+     *   empty if it can't be read, so every descriptor is left to Problem.splitPIProblem
+     */
+    public static ProblemCatalog getDefault() {
+        return Default.CATALOG;
+    }
+
+    private static ProblemCatalog loadDefault() {
+        Path path = Paths.get(PROBLEM_NAMES);
+        if (Files.isReadable(path)) {
+            try {
+                return load(path);
+            } catch (IOException | RuntimeException e) {
+                System.out.printf("WARNING: ignoring %s - %s\n", path, e.getMessage());
+            }
+        }
+        ProblemCatalog empty = new ProblemCatalog();
+        empty.buildTable();
+        return empty;
+    }
+
+    // Adds one line - blank & short lines are skipped
+    private void add(String descriptor) {
+        /*
+         * CSV gives us whole "BJP4 Exercise 8.07: addTimeSpan" which needs to be split out
+         *                       0       1     2       3
+         */
+        String[] results = descriptor.split("[: ]+");
+        if (results.length < 4)
+            return;
+        int[] chapterVerse = Problem.splitProblemNumber(results[2]);
+        int id = descriptors.size();
+        if (id == keys.length) {
+            keys = Arrays.copyOf(keys, id * 2);
+            ifStandard = Arrays.copyOf(ifStandard, id * 2);
+        }
+        descriptors.add(descriptor);
+        types.add(results[1]);
+        numbers.add(results[2]);
+        names.add(results[3]);
+        keys[id] = ProblemKey.of(results[1], chapterVerse[0], chapterVerse[1]);
+        // exactly what splitPIProblem takes without complaint
+        String[] piTypes = descriptor.split("[ ]+");
+        ifStandard[id] = piTypes.length == 4 && piTypes[0].startsWith("BJP")
+                && (piTypes[1].equals("Exercise") || piTypes[1].equals("Self-Check"));
+        if (!byKey.containsKey(keys[id]))
+            byKey.put(keys[id], id);
+    }
+
+    // Open addressing table at most half full - the first of equal descriptors wins
+    private void buildTable() {
+        int capacity = Integer.highestOneBit(Math.max(descriptors.size(), 8) * 2) * 2;
+        table = new int[capacity];
+        for (int id = 0; id < descriptors.size(); id++) {
+            String descriptor = descriptors.get(id);
+            if (find(descriptor) != -1)
+                continue;
+            int slot = hash(descriptor.toCharArray(), 0, descriptor.length()) & (capacity - 1);
+            while (table[slot] != 0)
+                slot = (slot + 1) & (capacity - 1);
+            table[slot] = id + 1;
+        }
+    }
+
+    /**
+     * Number of problems, ids are 0 .. size()-1 in file order
+     */
+    public int size() {
+        return descriptors.size();
+    }
+
+    /**
+     * Looks up a descriptor in a char buffer
+     *
+     * @param c - chars
+     * @param start - first char of the descriptor
+     * @param end - one past the last char
+     * @return id or -1 if it's not in the catalog
+     */
+    public int find(char[] c, int start, int end) {
+        int mask = table.length - 1;
+        for (int slot = hash(c, start, end) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            String descriptor = descriptors.get(table[slot] - 1);
+            if (descriptor.length() == end - start && regionMatches(descriptor, c, start))
+                return table[slot] - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Looks up a whole descriptor
+     *
+     * @param descriptor - BJP4 Exercise 8.07: addTimeSpan
+     * @return id or -1 if it's not in the catalog
+     */
+    public int find(String descriptor) {
+        return find(descriptor.toCharArray(), 0, descriptor.length());
+    }
+
+    /**
+     * First problem with a ProblemKey
+     *
+     * @param key
+     * @return id or -1
+     */
+    public int findKey(int key) {
+        Integer id = byKey.get(key);
+        return id == null ? -1 : id;
+    }
+
+    public String getDescriptor(int id) {
+        return descriptors.get(id);
+    }
+
+    /**
+     * Type as written, "Exercise" or "Self-Check" for a standard descriptor
+     */
+    public String getType(int id) {
+        return types.get(id);
+    }
+
+    /**
+     * Problem number as written - 8.07, 3G.1, 5.11a
+     */
+    public String getNumber(int id) {
+        return numbers.get(id);
+    }
+
+    public String getName(int id) {
+        return names.get(id);
+    }
+
+    public int getKey(int id) {
+        return keys[id];
+    }
+
+    public boolean isSelfCheck(int id) {
+        return ProblemKey.isSelfCheck(keys[id]);
+    }
+
+    public int getChapter(int id) {
+        return ProblemKey.chapter(keys[id]);
+    }
+
+    /**
+     * True if the descriptor is in the format of practice-it.csv - BJPn, Exercise or Self-Check, number, name
+     *   others are left to Problem.splitPIProblem so its format warning is still printed
+     */
+    public boolean isStandard(int id) {
+        return ifStandard[id];
+    }
+
+    /**
+     * A new Problem with its name
+     */
+    public Problem toProblem(int id) {
+        return new Problem(types.get(id), ProblemKey.chapter(keys[id]), ProblemKey.number(keys[id]), names.get(id));
+    }
+
+    /**
+     * Every problem with its name in file order
+     */
+    public List<Problem> toProblems() {
+        List<Problem> problems = new ArrayList<Problem>();
+        for (int id = 0; id < size(); id++)
+            problems.add(toProblem(id));
+        return problems;
+    }
+
+    private static int hash(char[] c, int start, int end) {
+        long h = 0;
+        for (int i = start; i < end; i++)
+            h = 31 * h + c[i];
+        return (int) CodeFingerprint.fmix64(h);
+    }
+
+    private static boolean regionMatches(String descriptor, char[] c, int start) {
+        for (int i = 0; i < descriptor.length(); i++) {
+            if (descriptor.charAt(i) != c[start + i])
+                return false;
+        }
+        return true;
+    }
+}
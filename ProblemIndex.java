@@ -0,0 +1,88 @@
+import java.util.*;
+
+/**
+ * Class ProblemIndex
+ * 
+ * Open addressing hash table from ProblemKey to position in the list of assigned problems
+ *   replaces problemList.indexOf(p) which compared every assigned problem with equals
+ *   keys and positions are kept in int arrays - no boxing and no Problem objects needed to look up
+ * 
+ *   ProblemIndex index = new ProblemIndex(problemList);
+ *   int i = index.indexOf(p.getKey());  // -1 if not assigned
+ * 
+ * The index is a snapshot - rebuild it if problems are added to the list
+ * 
+ * Version 2.1 - 10/18/26 initial version
+ */
+class ProblemIndex {
+    private final List<Problem> problems;
+    private final int[] keys;   // ProblemKey or ProblemKey.NONE for an empty slot
+    private final int[] values; // position in problems
+    private final int mask;
+
+    /**
+     * Indexes a list of problems
+     *   if a problem is listed twice the first one is found (same as indexOf)
+     * 
+     * @param problems
+     */
+    public ProblemIndex(List<Problem> problems) {
+        this.problems = problems;
+        // keep the table at most half full
+        int capacity = Integer.highestOneBit(Math.max(4, problems.size() * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, ProblemKey.NONE);
+        for (int i = 0; i < problems.size(); i++) {
+            int key = problems.get(i).getKey();
+            int slot = slot(key);
+            while (keys[slot] != ProblemKey.NONE && keys[slot] != key)
+                slot = (slot + 1) & mask;
+            if (keys[slot] == ProblemKey.NONE) {
+                keys[slot] = key;
+                values[slot] = i;
+            }
+        }
+    }
+
+    /**
+     * Position of a problem in the list
+     * 
+     * @param key - ProblemKey
+     * @return index or -1 if not in the list
+     */
+    public int indexOf(int key) {
+        int slot = slot(key);
+        while (keys[slot] != ProblemKey.NONE) {
+            if (keys[slot] == key)
+                return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public boolean contains(int key) {
+        return indexOf(key) != -1;
+    }
+
+    /**
+     * The listed problem for a key
+     * 
+     * @param key - ProblemKey
+     * @return Problem or null if not in the list
+     */
+    public Problem get(int key) {
+        int index = indexOf(key);
+        return index == -1 ? null : problems.get(index);
+    }
+
+    public int size() {
+        return problems.size();
+    }
+
+    private int slot(int key) {
+        // Fibonacci hashing spreads the packed chapter/number bits
+        return (key * 0x9E3779B9 >>> 16) & mask;
+    }
+}
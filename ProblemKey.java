@@ -0,0 +1,126 @@
+import java.util.Arrays;
+
+/**
+ * Class ProblemKey
+ * 
+ * Packs a problem's type, chapter and number into one int so problems can be compared,
+ *   hashed and stored without creating Problem objects or boxing
+ * 
+ *   bit 24       - 1 for Self-Check, 0 for Exercise
+ *   bits 12..23  - chapter (3G is chapter 20)
+ *   bits 0..11   - number (11a is 111, 11b is 112, ...)
+ * 
+ * Keys are never negative, so -1 can be used as "no problem"
+ * 
+ * Version 2.1 - 10/18/26 initial version
+ */
+final class ProblemKey {
+    static final int NONE = -1;
+    private static final int SELF_CHECK_BIT = 1 << 24;
+    private static final int CHAPTER_SHIFT = 12;
+    private static final int FIELD_MASK = (1 << 12) - 1;
+
+    private ProblemKey() {
+    }
+
+    /**
+     * Packs a problem into a key
+     * 
+     * @param type - "Self-Check" or anything else for an Exercise (same rule as Problem.toString)
+     * @param chapter - already remapped (3G -> 20)
+     * @param number - already remapped (11a -> 111)
+     * @return key
+     */
+    public static int of(String type, int chapter, int number) {
+        return of("Self-Check".equalsIgnoreCase(type), chapter, number);
+    }
+
+    public static int of(boolean ifSelfCheck, int chapter, int number) {
+        return (ifSelfCheck ? SELF_CHECK_BIT : 0) | (chapter & FIELD_MASK) << CHAPTER_SHIFT | (number & FIELD_MASK);
+    }
+
+    public static boolean isSelfCheck(int key) {
+        return (key & SELF_CHECK_BIT) != 0;
+    }
+
+    public static String type(int key) {
+        return isSelfCheck(key) ? "Self-Check" : "Exercise";
+    }
+
+    public static int chapter(int key) {
+        return (key >>> CHAPTER_SHIFT) & FIELD_MASK;
+    }
+
+    public static int number(int key) {
+        return key & FIELD_MASK;
+    }
+
+    /**
+     * Parses "3G.11a" or "8:07" straight into a key, with the same remapping as
+     *   Problem.splitProblemNumber - chapter 3G -> 20, problem 11a -> 100 + 11 + 1
+     * 
+     * @param ifSelfCheck
+     * @param token - chars holding chapter, separator (space . or :) and number
+     * @param start - first char of the chapter
+     * @param end - one past the last char of the number
+     * @return key or NONE if token isn't a problem number
+     */
+    public static int parse(boolean ifSelfCheck, CharSequence token, int start, int end) {
+        int pos = start;
+        int chapter = 0;
+        int digits = 0;
+        while (pos < end && Character.isDigit(token.charAt(pos))) {
+            chapter = chapter * 10 + token.charAt(pos++) - '0';
+            digits++;
+        }
+        if (digits == 0)
+            return NONE;
+        if (pos < end && token.charAt(pos) == 'G') {
+            // this must be Chapter 3G, currently assigned chapter 20
+            chapter = 20;
+            pos++;
+        }
+        // separators
+        while (pos < end && (token.charAt(pos) == ' ' || token.charAt(pos) == '.' || token.charAt(pos) == ':'))
+            pos++;
+        int number = 0;
+        digits = 0;
+        while (pos < end && Character.isDigit(token.charAt(pos))) {
+            number = number * 10 + token.charAt(pos++) - '0';
+            digits++;
+        }
+        if (digits == 0)
+            return NONE;
+        if (digits == 2 && pos < end && Character.isLetter(token.charAt(pos))) {
+            // this must be a problem 11a, etc - 100+11+a=1,b=2,etc
+            number = 100 + number + token.charAt(pos) - 'a';
+        }
+        return of(ifSelfCheck, chapter, number);
+    }
+
+    /**
+     * Sorts keys in the same order as Problem.compareTo
+     *   Self-Check before Exercise, then chapter, then number
+     * 
+     * @param keys
+     * @param length - number of keys to sort at the start of the array
+     */
+    public static void sort(int[] keys, int length) {
+        // flipping the type bit puts Self-Check first in plain int order
+        for (int i = 0; i < length; i++)
+            keys[i] ^= SELF_CHECK_BIT;
+        Arrays.sort(keys, 0, length);
+        for (int i = 0; i < length; i++)
+            keys[i] ^= SELF_CHECK_BIT;
+    }
+
+    /**
+     * Same format as Problem.toString
+     * 
+     * @param key
+     * @return "SC 1:2 " or "Ex 3:4 "
+     */
+    public static String toString(int key) {
+        return (isSelfCheck(key) ? "SC " : "Ex ") + chapter(key) + ":" + number(key) + " ";
+    }
+}
@@ -0,0 +1,216 @@
+import java.util.*;
+
+/**
+ * Class RedFlagScanner
+ *
+ * Finds every red flag of a problem in a student's code in one pass (Aho-Corasick automaton)
+ *
+ * Checking each red flag with indexOf on each line rescans the code once per red flag, which is
+ *   fine for one red flag per problem but not for the thousands a scraped corpus can have.
+ *   The red flags are compiled into a trie with failure links, so the code is read once
+ *   whatever the number of red flags, and every red flag found is reported
+ *
+ *   red flags   "i + 1", "lastIndexOf", "Index"
+ *   code        int i = s.lastIndexOf(x);     -> lastIndexOf, Index
+ *               return i + 1;                 -> i + 1
+ *
+ * Like before each line containing a red flag is another strike, so the result is the number of
+ *   lines each red flag is on.  Chars are fed one at a time (Scan.add) so the code can come straight
+ *   from a char buffer or from UTF-8 bytes as they're decoded
+ *
+ *   int[] lines = scanner.countLines(code, 0, code.length());
+ *
+ * A scanner is never changed once built and can be shared by threads, each Scan is for one thread
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class RedFlagScanner {
+    private static final int ASCII = 128;
+
+    private final String[] redFlags;
+    private final int[] delta;      // ASCII transitions of every state, failure links already followed
+    private final int[] fail;       // failure link of each state
+    private final int[] output;     // red flag ending at the state or -1
+    private final int[] outputLink; // next state down the failure links with an output or -1
+    // non-ASCII trie edges - (state << 16 | char) -> state
+    private final HashMap<Long, Integer> wideEdges = new HashMap<Long, Integer>();
+
+    /**
+     * Compiles the red flags
+     *
+     * @param redFlags - strings to find, repeats & empty strings are ignored
+     */
+    public RedFlagScanner(Collection<String> redFlags) {
+        LinkedHashSet<String> unique = new LinkedHashSet<String>();
+        for (String redFlag : redFlags) {
+            if (redFlag != null && !redFlag.isEmpty())
+                unique.add(redFlag);
+        }
+        this.redFlags = unique.toArray(new String[0]);
+
+        ///////////////////////////////////////////////////////////
+        // trie - ASCII edges in delta (-1 = none), others in wideEdges
+        ///////////////////////////////////////////////////////////
+        int maxStates = 1;
+        for (String redFlag : this.redFlags)
+            maxStates += redFlag.length();
+        int[] delta = new int[maxStates * ASCII];
+        Arrays.fill(delta, -1);
+        int[] output = new int[maxStates];
+        Arrays.fill(output, -1);
+        int states = 1;
+        for (int id = 0; id < this.redFlags.length; id++) {
+            int state = 0;
+            for (char c : this.redFlags[id].toCharArray()) {
+                int next = edge(delta, state, c);
+                if (next == -1) {
+                    next = states++;
+                    if (c < ASCII)
+                        delta[state * ASCII + c] = next;
+                    else
+                        wideEdges.put((long) state << 16 | c, next);
+                }
+                state = next;
+            }
+            output[state] = id;
+        }
+
+        ///////////////////////////////////////////////////////////
+        // failure links breadth first, filling in the missing ASCII transitions
+        ///////////////////////////////////////////////////////////
+        int[] fail = new int[states];
+        int[] outputLink = new int[states];
+        Arrays.fill(outputLink, -1);
+        int[] queue = new int[states];
+        int head = 0, tail = 0;
+        for (int c = 0; c < ASCII; c++) {
+            int next = delta[c];
+            if (next == -1)
+                delta[c] = 0;
+            else {
+                fail[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        // wide children of the root fail to the root
+        for (Map.Entry<Long, Integer> e : wideEdges.entrySet()) {
+            if (e.getKey() >>> 16 == 0)
+                queue[tail++] = e.getValue();
+        }
+        // wide edges by parent state so each state's children can be found
+        Map<Integer, List<long[]>> wideChildren = new HashMap<Integer, List<long[]>>();
+        for (Map.Entry<Long, Integer> e : wideEdges.entrySet()) {
+            int parent = (int) (e.getKey() >>> 16);
+            wideChildren.computeIfAbsent(parent, k -> new ArrayList<long[]>())
+                    .add(new long[] {e.getKey() & 0xFFFF, e.getValue()});
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            outputLink[state] = output[fail[state]] != -1 ? fail[state] : outputLink[fail[state]];
+            for (int c = 0; c < ASCII; c++) {
+                int next = delta[state * ASCII + c];
+                if (next == -1)
+                    delta[state * ASCII + c] = delta[fail[state] * ASCII + c];
+                else {
+                    fail[next] = delta[fail[state] * ASCII + c];
+                    queue[tail++] = next;
+                }
+            }
+            if (state != 0 && wideChildren.containsKey(state)) {
+                for (long[] child : wideChildren.get(state)) {
+                    int next = (int) child[1];
+                    fail[next] = step(fail, fail[state], (char) child[0]);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        this.delta = Arrays.copyOf(delta, states * ASCII);
+        this.fail = fail;
+        this.output = Arrays.copyOf(output, states);
+        this.outputLink = outputLink;
+    }
+
+    /**
+     * Red flags in the order of the counts returned
+     */
+    public String[] getRedFlags() {
+        return redFlags;
+    }
+
+    /**
+     * Counts the lines each red flag is on
+     *
+     * @param code - chars to scan, may span many lines
+     * @param start - first char
+     * @param end - one past the last char
+     * @return lines containing each red flag, in getRedFlags order
+     */
+    public int[] countLines(CharSequence code, int start, int end) {
+        Scan scan = new Scan();
+        for (int i = start; i < end; i++)
+            scan.add(code.charAt(i));
+        return scan.finish();
+    }
+
+    /**
+     * One pass over one piece of code
+     */
+    class Scan {
+        private int state;
+        private int line;
+        private final int[] lines = new int[redFlags.length];
+        private final int[] lastLine = new int[redFlags.length]; // line + 1 where a red flag was last counted
+
+        /**
+         * Feeds the next char (UTF-16, surrogates one at a time)
+         */
+        public void add(char c) {
+            if (c == '\n')
+                line++;
+            state = c < ASCII ? delta[state * ASCII + c] : step(fail, state, c);
+            for (int s = output[state] != -1 ? state : outputLink[state]; s != -1; s = outputLink[s]) {
+                int id = output[s];
+                if (lastLine[id] != line + 1) {
+                    lastLine[id] = line + 1;
+                    lines[id]++;
+                }
+            }
+        }
+
+        /**
+         * @return lines containing each red flag, in getRedFlags order
+         */
+        public int[] finish() {
+            return lines;
+        }
+    }
+
+    /**
+     * Total of the counts - the number of strikes
+     */
+    public static int total(int[] lines) {
+        int total = 0;
+        for (int count : lines)
+            total += count;
+        return total;
+    }
+
+    // next state for a non-ASCII char, following failure links
+    private int step(int[] fail, int state, char c) {
+        while (true) {
+            Integer next = wideEdges.get((long) state << 16 | c);
+            if (next != null)
+                return next;
+            if (state == 0)
+                return 0;
+            state = fail[state];
+        }
+    }
+
+    private int edge(int[] delta, int state, char c) {
+        if (c < ASCII)
+            return delta[state * ASCII + c];
+        Integer next = wideEdges.get((long) state << 16 | c);
+        return next == null ? -1 : next;
+    }
+}
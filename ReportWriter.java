@@ -0,0 +1,686 @@
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Class ReportWriter
+ *
+ * Writes the grading report printResults works out - the student lines, the by problem analysis and
+ *   the final cheating analysis - in one of three formats
+ *
+ *   text  the report as it has always been printed, byte for byte
+ *   csv   one row per fact  "Record","Username","First","Last","Problem","Value","Detail"
+ *   json  {"students": [...], "problems": [...], "cheating": {...}}
+ *
+ * Everything goes through one large buffered writer and a reused StringBuilder rather than a
+ *   System.out.printf per problem, and is only flushed when the writer is closed (or flush is called)
+ *
+ *   ReportWriter report = ReportWriter.open("json", Paths.get("report.json"));
+ *   PracticeItGrader.printResults(true, problemList, students, report);
+ *   report.close();
+ *
+ * printResults calls the methods in this order
+ *   (student studentProblems? studentDeadline? endStudent)*
+ *   beginProblems (beginProblem times? tries? (duplicate duplicateMember*)* similar* endProblem)*
+ *   (beginCheating cheater* beginOtherRedFlags otherRedFlag*)?
+ *
+ * Version 2.1 - 10/18/26 initial version, replaces the System.out.printf calls of printResults
+ */
+abstract class ReportWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    protected final Writer out;
+    protected final StringBuilder line = new StringBuilder(256); // reused for every line
+    private final boolean ifStdout;
+
+    protected ReportWriter(Writer out, boolean ifStdout) {
+        this.out = out;
+        this.ifStdout = ifStdout;
+    }
+
+    /**
+     * Opens a report
+     *
+     * @param format - "text", "csv" or "json"
+     * @param path - file to write, null for System.out
+     * @throws IOException
+     */
+    public static ReportWriter open(String format, Path path) throws IOException {
+        Writer out = path == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()), BUFFER_SIZE)
+                : new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+        switch (format.toLowerCase()) {
+            case "text":
+                return new Text(out, path == null);
+            case "csv":
+                return new Csv(out, path == null);
+            case "json":
+                return new Json(out, path == null);
+            default:
+                System.out.printf("WARNING: unknown report format %s, using text\n", format);
+                return new Text(out, path == null);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // Students
+    ////////////////////////////////////////////////////////////////////
+
+    /**
+     * Starts a student
+     *
+     * @param number - 1, 2, ... in class list order
+     */
+    public abstract void student(int number, String userName, String firstName, String lastName) throws IOException;
+
+    /**
+     * The student's assigned problems - only written when there's a class list
+     *
+     * @param attempted - assigned problems attempted
+     * @param assigned - number of assigned problems
+     * @param missing - assigned problems not attempted, sorted
+     * @param failed - ProblemKeys, sorted
+     * @param extras - ProblemKeys of problems not assigned, sorted
+     */
+    public abstract void studentProblems(int attempted, int assigned, List<Problem> missing,
+            int[] failed, int countFailed, int[] extras, int countExtras) throws IOException;
+
+    /**
+     * How many of the student's assigned problems were done by the deadline, and long before it
+     */
+    public abstract void studentDeadline(int countByDeadline, LocalDateTime deadline, int countOld, LocalDateTime start) throws IOException;
+
+    public abstract void endStudent() throws IOException;
+
+    ////////////////////////////////////////////////////////////////////
+    // By problem analysis
+    ////////////////////////////////////////////////////////////////////
+
+    public abstract void beginProblems() throws IOException;
+
+    public abstract void beginProblem(Problem p) throws IOException;
+
+    /**
+     * Students who took under half the median time
+     *
+     * @param times - every student's seconds, sorted
+     * @param medianTime - seconds
+     * @param flagged - the fast ones
+     */
+    public abstract void times(Problem p, List<Map.Entry<String, Long>> times, long medianTime,
+            List<Map.Entry<String, Long>> flagged) throws IOException;
+
+    /**
+     * Students who took under half the median tries
+     *
+     * @param tries - every student's tries, sorted
+     * @param flagged - the low ones
+     */
+    public abstract void tries(Problem p, List<Map.Entry<String, Integer>> tries, int medianTries,
+            List<Map.Entry<String, Integer>> flagged) throws IOException;
+
+    /**
+     * A group of users with the same code, followed by duplicateMember for each student in it
+     */
+    public abstract void duplicate(Problem p, List<String> names) throws IOException;
+
+    public abstract void duplicateMember(Problem p, String name, int tries, long minutes) throws IOException;
+
+    public abstract void similar(Problem p, SimilarityIndex.Match match) throws IOException;
+
+    /**
+     * @param ifSeparator - the text report ends a problem it printed times or tries for with a blank line
+     */
+    public abstract void endProblem(Problem p, boolean ifSeparator) throws IOException;
+
+    ////////////////////////////////////////////////////////////////////
+    // Final cheating analysis
+    ////////////////////////////////////////////////////////////////////
+
+    public abstract void beginCheating(int medianIndex) throws IOException;
+
+    /**
+     * A suspicious student
+     *
+     * @param flags - <reason, problems flagged for it>
+     */
+    public abstract void cheater(Student s, Map<String, ArrayList<String>> flags) throws IOException;
+
+    public abstract void beginOtherRedFlags() throws IOException;
+
+    public abstract void otherRedFlag(String userName, Problem p) throws IOException;
+
+    /**
+     * Writes out what's buffered
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Ends the report, System.out is flushed but left open
+     */
+    @Override
+    public void close() throws IOException {
+        finish();
+        if (ifStdout)
+            out.flush();
+        else
+            out.close();
+    }
+
+    // Anything needed to complete the report
+    protected void finish() throws IOException {
+    }
+
+    protected void writeLine() throws IOException {
+        out.append(line);
+        line.setLength(0);
+    }
+
+    // "Ex 1:2" - Problem.toString without the trailing space
+    protected static String name(Problem p) {
+        return p.toString().trim();
+    }
+
+    protected static String name(int key) {
+        return ProblemKey.toString(key).trim();
+    }
+
+    /**
+     * Plain text - exactly what printResults printed before, println line ends included
+     */
+    private static class Text extends ReportWriter {
+        private static final String NL = System.lineSeparator();
+
+        Text(Writer out, boolean ifStdout) {
+            super(out, ifStdout);
+        }
+
+        @Override
+        public void student(int number, String userName, String firstName, String lastName) throws IOException {
+            line.append(userName).append(' ').append(firstName).append(' ').append(lastName)
+                    .append(" #").append(number).append(' ');
+            writeLine();
+        }
+
+        @Override
+        public void studentProblems(int attempted, int assigned, List<Problem> missing,
+                int[] failed, int countFailed, int[] extras, int countExtras) throws IOException {
+            line.append("Attempted ").append(attempted).append(" of ").append(assigned).append(" assigned\n");
+            line.append("\tMissing ").append(missing.size()).append(':');
+            for (Problem p : missing)
+                line.append(p);
+            line.append(NL).append("\tFailed ").append(countFailed).append(": ");
+            for (int i = 0; i < countFailed; i++)
+                line.append(ProblemKey.toString(failed[i]));
+            line.append(NL).append("\tExtras ").append(countExtras).append(": ");
+            for (int i = 0; i < countExtras; i++)
+                line.append(ProblemKey.toString(extras[i]));
+            line.append(NL);
+            writeLine();
+        }
+
+        @Override
+        public void studentDeadline(int countByDeadline, LocalDateTime deadline, int countOld, LocalDateTime start) throws IOException {
+            line.append('\t').append(countByDeadline).append(" assigned attempted before ")
+                    .append(deadline.toString(), 0, 10).append(NL);
+            line.append('\t').append(countOld).append(" done before ").append(start.toString(), 0, 10).append(NL);
+            writeLine();
+        }
+
+        @Override
+        public void endStudent() throws IOException {
+            out.write(NL);
+        }
+
+        @Override
+        public void beginProblems() throws IOException {
+            out.write("********  BY PROBLEM ANALYSIS **********" + NL);
+        }
+
+        @Override
+        public void beginProblem(Problem p) {
+        }
+
+        @Override
+        public void times(Problem p, List<Map.Entry<String, Long>> times, long medianTime,
+                List<Map.Entry<String, Long>> flagged) throws IOException {
+            line.append("(min)Times for ").append(p).append(" are: ");
+            for (Map.Entry<String, Long> entry : times)
+                line.append(entry.getValue() / 60).append(' ');
+            line.append("\n(min)Times: median ").append(medianTime / 60).append(" vs: ");
+            for (Map.Entry<String, Long> entry : flagged)
+                line.append(entry.getKey()).append('=').append(entry.getValue() / 60).append(' ');
+            line.append('\n');
+            writeLine();
+        }
+
+        @Override
+        public void tries(Problem p, List<Map.Entry<String, Integer>> tries, int medianTries,
+                List<Map.Entry<String, Integer>> flagged) throws IOException {
+            // the old report started this section with "null", kept so reports can still be diffed
+            line.append("null# Tries for ").append(p).append(" are: ");
+            for (Map.Entry<String, Integer> entry : tries)
+                line.append(entry.getValue()).append(' ');
+            line.append("\n# Tries median ").append(medianTries).append(" vs: ");
+            for (Map.Entry<String, Integer> entry : flagged)
+                line.append(entry.getKey()).append('=').append(entry.getValue()).append(' ');
+            line.append('\n');
+            writeLine();
+        }
+
+        @Override
+        public void duplicate(Problem p, List<String> names) throws IOException {
+            line.append("Problem ").append(p).append(": duplicated by: ").append(names).append('\n');
+            writeLine();
+        }
+
+        @Override
+        public void duplicateMember(Problem p, String name, int tries, long minutes) throws IOException {
+            line.append('\t').append(name).append(" tried ").append(tries).append(" times in ").append(minutes).append(" min\n");
+            writeLine();
+        }
+
+        @Override
+        public void similar(Problem p, SimilarityIndex.Match match) throws IOException {
+            line.append("Problem ").append(p).append(": similar ").append(Math.round(match.similarity * 100))
+                    .append("%: ").append(match.name1).append(' ').append(match.name2).append('\n');
+            writeLine();
+        }
+
+        @Override
+        public void endProblem(Problem p, boolean ifSeparator) throws IOException {
+            if (ifSeparator)
+                out.write(NL);
+        }
+
+        @Override
+        public void beginCheating(int medianIndex) throws IOException {
+            line.append("********  FINAL CHEATING ANALYSIS **********").append(NL)
+                    .append("Median cheating index was ").append(medianIndex).append(", Top 1/3rd suspicious are:\n");
+            writeLine();
+        }
+
+        @Override
+        public void cheater(Student s, Map<String, ArrayList<String>> flags) throws IOException {
+            line.append("**").append(s.getUserName()).append(" index ").append(s.getCheatingIndex()).append('\n');
+            for (Map.Entry<String, ArrayList<String>> reason : flags.entrySet()) {
+                line.append(reason.getKey()).append(": ");
+                for (String problem : reason.getValue())
+                    line.append(problem);
+                line.append(NL);
+            }
+            writeLine();
+        }
+
+        @Override
+        public void beginOtherRedFlags() throws IOException {
+            out.write("********  Other students with red flags ********\n");
+        }
+
+        @Override
+        public void otherRedFlag(String userName, Problem p) throws IOException {
+            line.append("Student ").append(userName).append(" red flag ").append(p).append('\n');
+            writeLine();
+        }
+    }
+
+    /**
+     * One row per fact, every field quoted
+     *   student, attempted, missing, failed, extra, deadline, old - Username rows
+     *   times, tries, duplicate, similar - Problem rows of flagged students
+     *   cheater, flag, redFlag - final analysis
+     */
+    private static class Csv extends ReportWriter {
+        private String userName = "";
+        private String firstName = "";
+        private String lastName = "";
+
+        Csv(Writer out, boolean ifStdout) throws IOException {
+            super(out, ifStdout);
+            row("Record", "Username", "First", "Last", "Problem", "Value", "Detail");
+        }
+
+        private void row(String record, String user, String first, String last, String problem, Object value, Object detail)
+                throws IOException {
+            line.append(CsvReader.quote(record)).append(',').append(CsvReader.quote(user)).append(',')
+                    .append(CsvReader.quote(first)).append(',').append(CsvReader.quote(last)).append(',')
+                    .append(CsvReader.quote(problem)).append(',').append(CsvReader.quote(String.valueOf(value))).append(',')
+                    .append(CsvReader.quote(String.valueOf(detail))).append('\n');
+            writeLine();
+        }
+
+        private void row(String record, String user, String problem, Object value, Object detail) throws IOException {
+            row(record, user, "", "", problem, value, detail);
+        }
+
+        @Override
+        public void student(int number, String userName, String firstName, String lastName) throws IOException {
+            this.userName = userName;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            row("student", userName, firstName, lastName, "", number, "");
+        }
+
+        @Override
+        public void studentProblems(int attempted, int assigned, List<Problem> missing,
+                int[] failed, int countFailed, int[] extras, int countExtras) throws IOException {
+            row("attempted", userName, firstName, lastName, "", attempted, assigned);
+            for (Problem p : missing)
+                row("missing", userName, firstName, lastName, name(p), "", "");
+            for (int i = 0; i < countFailed; i++)
+                row("failed", userName, firstName, lastName, name(failed[i]), "", "");
+            for (int i = 0; i < countExtras; i++)
+                row("extra", userName, firstName, lastName, name(extras[i]), "", "");
+        }
+
+        @Override
+        public void studentDeadline(int countByDeadline, LocalDateTime deadline, int countOld, LocalDateTime start) throws IOException {
+            row("deadline", userName, firstName, lastName, "", countByDeadline, deadline.toString().substring(0, 10));
+            row("old", userName, firstName, lastName, "", countOld, start.toString().substring(0, 10));
+        }
+
+        @Override
+        public void endStudent() {
+        }
+
+        @Override
+        public void beginProblems() {
+        }
+
+        @Override
+        public void beginProblem(Problem p) {
+        }
+
+        @Override
+        public void times(Problem p, List<Map.Entry<String, Long>> times, long medianTime,
+                List<Map.Entry<String, Long>> flagged) throws IOException {
+            for (Map.Entry<String, Long> entry : flagged)
+                row("times", entry.getKey(), name(p), entry.getValue() / 60, "median " + medianTime / 60);
+        }
+
+        @Override
+        public void tries(Problem p, List<Map.Entry<String, Integer>> tries, int medianTries,
+                List<Map.Entry<String, Integer>> flagged) throws IOException {
+            for (Map.Entry<String, Integer> entry : flagged)
+                row("tries", entry.getKey(), name(p), entry.getValue(), "median " + medianTries);
+        }
+
+        @Override
+        public void duplicate(Problem p, List<String> names) throws IOException {
+            for (String name : names) {
+                if (name.startsWith("**"))
+                    row("duplicate", name, name(p), "", String.join(" ", names));
+            }
+        }
+
+        @Override
+        public void duplicateMember(Problem p, String name, int tries, long minutes) throws IOException {
+            row("duplicate", name, name(p), tries, minutes + " min");
+        }
+
+        @Override
+        public void similar(Problem p, SimilarityIndex.Match match) throws IOException {
+            row("similar", match.name1, name(p), Math.round(match.similarity * 100), match.name2);
+        }
+
+        @Override
+        public void endProblem(Problem p, boolean ifSeparator) {
+        }
+
+        @Override
+        public void beginCheating(int medianIndex) throws IOException {
+            row("median", "", "", medianIndex, "");
+        }
+
+        @Override
+        public void cheater(Student s, Map<String, ArrayList<String>> flags) throws IOException {
+            row("cheater", s.getUserName(), "", s.getCheatingIndex(), "");
+            for (Map.Entry<String, ArrayList<String>> reason : flags.entrySet()) {
+                for (String problem : reason.getValue())
+                    row("flag", s.getUserName(), problem.trim(), "", reason.getKey());
+            }
+        }
+
+        @Override
+        public void beginOtherRedFlags() {
+        }
+
+        @Override
+        public void otherRedFlag(String userName, Problem p) throws IOException {
+            row("redFlag", userName, name(p), "", "");
+        }
+    }
+
+    /**
+     * One JSON object, written as it goes
+     *   {"students": [{"user": .., "first": .., "last": .., "number": 1, "attempted": .., "assigned": ..,
+     *                  "missing": [..], "failed": [..], "extras": [..], "byDeadline": .., "old": ..}],
+     *    "problems": [{"problem": "Ex 1:2", "times": {"median": .., "flagged": {"user": minutes}},
+     *                  "tries": {..}, "duplicates": [{"users": [..]}], "similar": [{"user1": .., "user2": .., "similarity": ..}]}],
+     *    "cheating": {"median": .., "suspicious": [{"user": .., "index": .., "flags": {"Times": [..]}}],
+     *                 "otherRedFlags": [{"user": .., "problem": ..}]}}
+     *   problems with nothing found are left out
+     */
+    private static class Json extends ReportWriter {
+        private final StringBuilder problem = new StringBuilder(); // current problem's findings
+        private boolean ifFirst = true;       // nothing written yet in the current array
+        private boolean ifFirstDuplicate;
+        private boolean ifFirstSimilar;
+        private boolean ifInDuplicates;
+        private boolean ifInSimilar;
+        private String section = null;        // array being written
+
+        Json(Writer out, boolean ifStdout) throws IOException {
+            super(out, ifStdout);
+            out.write("{");
+        }
+
+        // Ends the previous array (or object) and starts the next
+        private void section(String name, String open) throws IOException {
+            if (name.equals(section))
+                return;
+            if (section != null)
+                out.write(section.equals("cheating") ? "]}" : "\n]");
+            out.write(section == null ? "\n" : ",\n");
+            out.write('"' + name + "\": " + open);
+            section = name;
+            ifFirst = true;
+        }
+
+        private void element() throws IOException {
+            out.write(ifFirst ? "\n" : ",\n");
+            ifFirst = false;
+        }
+
+        @Override
+        public void student(int number, String userName, String firstName, String lastName) throws IOException {
+            section("students", "[");
+            element();
+            line.append("{\"user\": ");
+            string(userName).append(", \"first\": ");
+            string(firstName).append(", \"last\": ");
+            string(lastName).append(", \"number\": ").append(number);
+            writeLine();
+        }
+
+        @Override
+        public void studentProblems(int attempted, int assigned, List<Problem> missing,
+                int[] failed, int countFailed, int[] extras, int countExtras) throws IOException {
+            line.append(", \"attempted\": ").append(attempted).append(", \"assigned\": ").append(assigned).append(", \"missing\": [");
+            for (int i = 0; i < missing.size(); i++)
+                string(name(missing.get(i))).append(i < missing.size() - 1 ? ", " : "");
+            line.append("], \"failed\": [");
+            for (int i = 0; i < countFailed; i++)
+                string(name(failed[i])).append(i < countFailed - 1 ? ", " : "");
+            line.append("], \"extras\": [");
+            for (int i = 0; i < countExtras; i++)
+                string(name(extras[i])).append(i < countExtras - 1 ? ", " : "");
+            line.append(']');
+            writeLine();
+        }
+
+        @Override
+        public void studentDeadline(int countByDeadline, LocalDateTime deadline, int countOld, LocalDateTime start) throws IOException {
+            line.append(", \"byDeadline\": ").append(countByDeadline).append(", \"deadline\": ");
+            string(deadline.toString().substring(0, 10)).append(", \"old\": ").append(countOld).append(", \"oldBefore\": ");
+            string(start.toString().substring(0, 10));
+            writeLine();
+        }
+
+        @Override
+        public void endStudent() throws IOException {
+            out.write("}");
+        }
+
+        @Override
+        public void beginProblems() throws IOException {
+            section("problems", "[");
+        }
+
+        @Override
+        public void beginProblem(Problem p) {
+            problem.setLength(0);
+            ifInDuplicates = false;
+            ifInSimilar = false;
+        }
+
+        @Override
+        public void times(Problem p, List<Map.Entry<String, Long>> times, long medianTime,
+                List<Map.Entry<String, Long>> flagged) {
+            problem.append(", \"times\": {\"median\": ").append(medianTime / 60).append(", \"flagged\": {");
+            for (int i = 0; i < flagged.size(); i++) {
+                quote(problem, flagged.get(i).getKey()).append(": ").append(flagged.get(i).getValue() / 60)
+                        .append(i < flagged.size() - 1 ? ", " : "");
+            }
+            problem.append("}}");
+        }
+
+        @Override
+        public void tries(Problem p, List<Map.Entry<String, Integer>> tries, int medianTries,
+                List<Map.Entry<String, Integer>> flagged) {
+            problem.append(", \"tries\": {\"median\": ").append(medianTries).append(", \"flagged\": {");
+            for (int i = 0; i < flagged.size(); i++) {
+                quote(problem, flagged.get(i).getKey()).append(": ").append(flagged.get(i).getValue())
+                        .append(i < flagged.size() - 1 ? ", " : "");
+            }
+            problem.append("}}");
+        }
+
+        @Override
+        public void duplicate(Problem p, List<String> names) {
+            if (!ifInDuplicates) {
+                problem.append(", \"duplicates\": [");
+                ifInDuplicates = true;
+                ifFirstDuplicate = true;
+            }
+            problem.append(ifFirstDuplicate ? "" : ", ").append("{\"users\": [");
+            ifFirstDuplicate = false;
+            for (int i = 0; i < names.size(); i++)
+                quote(problem, names.get(i)).append(i < names.size() - 1 ? ", " : "");
+            problem.append("], \"members\": {}}");
+        }
+
+        @Override
+        public void duplicateMember(Problem p, String name, int tries, long minutes) {
+            // fill in the members object of the group just written
+            problem.setLength(problem.length() - 2);
+            if (problem.charAt(problem.length() - 1) != '{')
+                problem.append(", ");
+            quote(problem, name).append(": {\"tries\": ").append(tries).append(", \"minutes\": ").append(minutes).append("}}}");
+        }
+
+        @Override
+        public void similar(Problem p, SimilarityIndex.Match match) {
+            if (ifInDuplicates && !ifInSimilar)
+                problem.append(']');
+            if (!ifInSimilar) {
+                problem.append(", \"similar\": [");
+                ifInSimilar = true;
+                ifFirstSimilar = true;
+            }
+            problem.append(ifFirstSimilar ? "" : ", ").append("{\"user1\": ");
+            ifFirstSimilar = false;
+            quote(problem, match.name1).append(", \"user2\": ");
+            quote(problem, match.name2).append(", \"similarity\": ").append(Math.round(match.similarity * 100) / 100.0).append('}');
+        }
+
+        @Override
+        public void endProblem(Problem p, boolean ifSeparator) throws IOException {
+            if (problem.length() == 0)
+                return;
+            if (ifInSimilar || ifInDuplicates)
+                problem.append(']');
+            element();
+            line.append("{\"problem\": ");
+            string(name(p)).append(problem).append('}');
+            writeLine();
+        }
+
+        @Override
+        public void beginCheating(int medianIndex) throws IOException {
+            section("cheating", "{\"median\": " + medianIndex + ", \"suspicious\": [");
+        }
+
+        @Override
+        public void cheater(Student s, Map<String, ArrayList<String>> flags) throws IOException {
+            element();
+            line.append("{\"user\": ");
+            string(s.getUserName()).append(", \"index\": ").append(s.getCheatingIndex()).append(", \"flags\": {");
+            int reasons = 0;
+            for (Map.Entry<String, ArrayList<String>> reason : flags.entrySet()) {
+                string(reason.getKey()).append(": [");
+                for (int i = 0; i < reason.getValue().size(); i++)
+                    string(reason.getValue().get(i).trim()).append(i < reason.getValue().size() - 1 ? ", " : "");
+                line.append(++reasons < flags.size() ? "], " : "]");
+            }
+            line.append("}}");
+            writeLine();
+        }
+
+        @Override
+        public void beginOtherRedFlags() throws IOException {
+            out.write("\n], \"otherRedFlags\": [");
+            ifFirst = true;
+        }
+
+        @Override
+        public void otherRedFlag(String userName, Problem p) throws IOException {
+            element();
+            line.append("{\"user\": ");
+            string(userName).append(", \"problem\": ");
+            string(name(p)).append('}');
+            writeLine();
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            if (section != null)
+                out.write(section.equals("cheating") ? "\n]}" : "\n]");
+            out.write("\n}\n");
+        }
+
+        private StringBuilder string(String s) {
+            return quote(line, s);
+        }
+
+        private static StringBuilder quote(StringBuilder sb, String s) {
+            if (s == null)
+                return sb.append("null");
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\')
+                    sb.append('\\').append(c);
+                else if (c < ' ')
+                    sb.append(String.format("\\u%04x", (int) c));
+                else
+                    sb.append(c);
+            }
+            return sb.append('"');
+        }
+    }
+}
@@ -0,0 +1,217 @@
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Class SimilarityIndex
+ *
+ * Finds pairs of users whose code for a problem is nearly the same - renamed variables,
+ *   changed strings, moved or added lines - from their winnowed k-gram fingerprints (Winnower)
+ *
+ * Instead of comparing every pair of submissions, the fingerprints go into an inverted index
+ *   fingerprint -> users having it.  Only users on the same list are ever counted together,
+ *   so the work depends on how many fingerprints are shared and not on users squared.
+ *   Fingerprints that most of the class has (public static void main ...) are boilerplate,
+ *   they're left out like MOSS does and don't count towards the similarity
+ *
+ *   similarity = shared fingerprints / fingerprints of the smaller submission
+ *
+ * Only pairs with a student are scored - two ** known cheaters (CheaterCorpus) are never counted together
+ *
+ * Version 2.1 - 10/18/26 initial version
+ *                      pairs of two ** known cheaters left out
+ */
+class SimilarityIndex {
+    // Fingerprints held by more users than this (or a tenth of the users, if more) are boilerplate
+    static final int MAX_COMMON = 10;
+    // Submissions with fewer uncommon fingerprints than this are too small to judge
+    static final int MIN_FINGERPRINTS = 4;
+
+    /**
+     * A pair of users with similar code
+     */
+    static class Match {
+        final String name1;
+        final String name2;
+        final int shared;       // fingerprints in common
+        final double similarity; // 0..1
+
+        Match(String name1, String name2, int shared, double similarity) {
+            this.name1 = name1;
+            this.name2 = name2;
+            this.shared = shared;
+            this.similarity = similarity;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s %d%%", name1, name2, Math.round(similarity * 100));
+        }
+    }
+
+    /**
+     * Finds the similar pairs for one problem
+     *
+     * @param kgrams - map of <UserName, sorted fingerprints>
+     * @param threshold - smallest similarity reported, 0..1
+     * @return pairs with at least one student, most similar first, names in map order within a pair
+     */
+    public static List<Match> findSimilar(Map<String, long[]> kgrams, double threshold) {
+        int n = kgrams.size();
+        String[] names = new String[n];
+        long[][] prints = new long[n][];
+        boolean[] ifCorpus = new boolean[n]; // ** known cheater, not a student
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<String, long[]> entry : kgrams.entrySet()) {
+            names[i] = entry.getKey();
+            prints[i] = entry.getValue();
+            ifCorpus[i] = names[i].startsWith("**");
+            total += prints[i].length;
+            i++;
+        }
+
+        ///////////////////////////////////////////////////////////
+        // inverted index - open addressing fingerprint -> chain of (user) postings
+        ///////////////////////////////////////////////////////////
+        int capacity = Integer.highestOneBit(Math.max(4, total * 2 - 1)) << 1;
+        int mask = capacity - 1;
+        long[] keys = new long[capacity];
+        int[] head = new int[capacity];      // first posting + 1, 0 = empty slot
+        int[] df = new int[capacity];        // number of users with the fingerprint
+        int[] postingUser = new int[total];
+        int[] postingNext = new int[total];  // next posting of the same fingerprint or -1
+        int postings = 0;
+        for (int user = 0; user < n; user++) {
+            for (long print : prints[user]) {
+                int slot = (int) (print * 0x9E3779B97F4A7C15L >>> 32) & mask;
+                while (head[slot] != 0 && keys[slot] != print)
+                    slot = (slot + 1) & mask;
+                keys[slot] = print;
+                postingUser[postings] = user;
+                postingNext[postings] = head[slot] - 1;
+                head[slot] = ++postings;
+                df[slot]++;
+            }
+        }
+
+        ///////////////////////////////////////////////////////////
+        // count uncommon fingerprints per user & shared ones per pair
+        ///////////////////////////////////////////////////////////
+        int maxCommon = Math.max(MAX_COMMON, n / 10);
+        int[] size = new int[n];
+        PairCounter shared = new PairCounter();
+        int[] users = new int[Math.min(n, maxCommon)];
+        for (int slot = 0; slot < capacity; slot++) {
+            if (head[slot] == 0 || df[slot] > maxCommon)
+                continue;
+            int count = 0;
+            for (int p = head[slot] - 1; p != -1; p = postingNext[p])
+                users[count++] = postingUser[p];
+            for (int a = 0; a < count; a++) {
+                size[users[a]]++;
+                for (int b = 0; b < a; b++) {
+                    if (!ifCorpus[users[a]] || !ifCorpus[users[b]])
+                        shared.increment(users[a], users[b]);
+                }
+            }
+        }
+
+        ///////////////////////////////////////////////////////////
+        // score the pairs
+        ///////////////////////////////////////////////////////////
+        List<Match> matches = new ArrayList<Match>();
+        for (int e = 0; e < shared.capacity(); e++) {
+            if (!shared.isUsed(e))
+                continue;
+            int a = shared.first(e), b = shared.second(e);
+            int smaller = Math.min(size[a], size[b]);
+            if (smaller < MIN_FINGERPRINTS)
+                continue;
+            double similarity = (double) shared.count(e) / smaller;
+            if (similarity >= threshold)
+                matches.add(new Match(names[a], names[b], shared.count(e), similarity));
+        }
+        matches.sort(Comparator.comparingDouble((Match m) -> -m.similarity)
+                .thenComparing(m -> m.name1).thenComparing(m -> m.name2));
+        return matches;
+    }
+
+    /**
+     * Finds the similar pairs for every problem at once, one problem per task
+     *   on the common ForkJoinPool.  The maps are only read.
+     *
+     * @param kgrams - map of <UserName, sorted fingerprints> for each problem
+     * @param threshold - smallest similarity reported, 0..1
+     * @return pairs for each problem, in the same order
+     */
+    public static List<List<Match>> findAllSimilar(List<Map<String, long[]>> kgrams, double threshold) {
+        return IntStream.range(0, kgrams.size())
+                .parallel()
+                .mapToObj(index -> findSimilar(kgrams.get(index), threshold))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Open addressing map of user pair -> count, the pair packed into a long
+     */
+    private static class PairCounter {
+        private long[] pairs = new long[64]; // (larger + 1) << 32 | smaller, 0 = empty
+        private int[] counts = new int[64];
+        private int size;
+
+        void increment(int a, int b) {
+            long pair = (long) (Math.max(a, b) + 1) << 32 | Math.min(a, b);
+            if (size * 2 >= pairs.length)
+                grow();
+            int slot = find(pairs, pair);
+            if (pairs[slot] == 0) {
+                pairs[slot] = pair;
+                size++;
+            }
+            counts[slot]++;
+        }
+
+        int capacity() {
+            return pairs.length;
+        }
+
+        boolean isUsed(int slot) {
+            return pairs[slot] != 0;
+        }
+
+        // users of a pair, the earlier one in the map first
+        int first(int slot) {
+            return (int) pairs[slot];
+        }
+
+        int second(int slot) {
+            return (int) (pairs[slot] >>> 32) - 1;
+        }
+
+        int count(int slot) {
+            return counts[slot];
+        }
+
+        private static int find(long[] pairs, long pair) {
+            int mask = pairs.length - 1;
+            int slot = (int) (pair * 0x9E3779B97F4A7C15L >>> 32) & mask;
+            while (pairs[slot] != 0 && pairs[slot] != pair)
+                slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldPairs = pairs;
+            int[] oldCounts = counts;
+            pairs = new long[oldPairs.length * 2];
+            counts = new int[oldPairs.length * 2];
+            for (int i = 0; i < oldPairs.length; i++) {
+                if (oldPairs[i] != 0) {
+                    int slot = find(pairs, oldPairs[i]);
+                    pairs[slot] = oldPairs[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.*;
+
+/**
+ * Class StageStats
+ *
+ * Records where a run's time goes - for each stage of grading its wall time, CPU time, rows processed,
+ *   bytes read and bytes allocated
+ *
+ *   StageStats.Timer timer = StageStats.start("readProblems");
+ *   ...
+ *   timer.end(rows, bytes);
+ *
+ * CPU time is the whole process's (every thread, GC & JIT included).  Allocation is what each thread
+ *   allocated since the stage started, so threads of earlier stages that end during this one don't
+ *   take anything off.  Threads that end during a stage (IngestPipeline's) call threadEnding() first
+ *   so what they allocated is still counted; a thread that ends without it only counts while alive.
+ *   Taking the numbers costs a few microseconds per stage, so the stages are always timed and
+ *   PracticeItGrader.ifInstrument only decides whether "Grading Stages.json" is written
+ *
+ *   {"stages": [
+ *     {"name": "readProblems", "wallMs": 812.4, "cpuMs": 1630.0, "rows": 95815, "bytes": 34720112, "allocatedBytes": 358612096},
+ *     ...
+ *   ]}
+ *
+ * Each stage is also a JFR event (practiceit.Stage) - recorded by running with
+ *   java -XX:StartFlightRecording=filename=grading.jfr PracticeItGrader
+ *   and otherwise free
+ *
+ * Version 2.1 - 10/18/26 initial version
+ *                      allocation counted per thread from the stage start, including threads that ended
+ */
+class StageStats {
+    static final String SUMMARY_FILE = "Grading Stages.json";
+
+    private static final List<Stage> stages = new ArrayList<Stage>();
+    // thread id -> bytes allocated, left by threads as they end (threadEnding)
+    private static final Map<Long, Long> ended = new ConcurrentHashMap<Long, Long>();
+
+    /**
+     * Numbers of one finished stage
+     */
+    static class Stage {
+        final String name;
+        final long wallNanos;
+        final long cpuNanos;
+        final long rows;
+        final long bytes;
+        final long allocatedBytes;
+
+        Stage(String name, long wallNanos, long cpuNanos, long rows, long bytes, long allocatedBytes) {
+            this.name = name;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.rows = rows;
+            this.bytes = bytes;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    @Name("practiceit.Stage")
+    @Label("Grading Stage")
+    @Category("PracticeIt Grader")
+    @StackTrace(false)
+    static class StageEvent extends Event {
+        @Label("Stage")
+        String stage;
+        @Label("Rows")
+        long rows;
+        @Label("Bytes Read")
+        @DataAmount
+        long bytes;
+        @Label("CPU Time")
+        @Timespan
+        long cpuNanos;
+        @Label("Allocated")
+        @DataAmount
+        long allocatedBytes;
+    }
+
+    /**
+     * A stage being timed
+     */
+    static class Timer {
+        private final String name;
+        private final StageEvent event = new StageEvent();
+        private final long wallStart;
+        private final long cpuStart;
+        private final Map<Long, Long> allocatedStart;
+
+        private Timer(String name) {
+            this.name = name;
+            allocatedStart = allocatedByThread();
+            cpuStart = cpuNanos();
+            event.begin();
+            wallStart = System.nanoTime();
+        }
+
+        /**
+         * Ends the stage and records it
+         *
+         * @param rows - records, students, problems ... whatever the stage works through
+         * @param bytes - bytes read from files, 0 if none
+         * @return the stage's numbers
+         */
+        public Stage end(long rows, long bytes) {
+            long wall = System.nanoTime() - wallStart;
+            event.end();
+            Stage stage = new Stage(name, wall, cpuNanos() - cpuStart, rows, bytes, allocatedSince(allocatedStart));
+            if (event.shouldCommit()) {
+                event.stage = name;
+                event.rows = rows;
+                event.bytes = bytes;
+                event.cpuNanos = stage.cpuNanos;
+                event.allocatedBytes = stage.allocatedBytes;
+                event.commit();
+            }
+            synchronized (stages) {
+                stages.add(stage);
+            }
+            return stage;
+        }
+    }
+
+    /**
+     * Starts timing a stage
+     *
+     * @param name - e.g. "readProblems"
+     */
+    public static Timer start(String name) {
+        return new Timer(name);
+    }
+
+    /**
+     * Stages ended so far, in the order they ended
+     */
+    public static List<Stage> getStages() {
+        synchronized (stages) {
+            return new ArrayList<Stage>(stages);
+        }
+    }
+
+    public static void clear() {
+        synchronized (stages) {
+            stages.clear();
+        }
+    }
+
+    /**
+     * Writes the stages ended so far as JSON
+     *
+     * @param path
+     */
+    public static void writeJson(Path path) {
+        StringBuilder json = new StringBuilder("{\"stages\": [\n");
+        List<Stage> ended = getStages();
+        for (int i = 0; i < ended.size(); i++) {
+            Stage stage = ended.get(i);
+            json.append(String.format(Locale.ROOT,
+                    "  {\"name\": \"%s\", \"wallMs\": %.3f, \"cpuMs\": %.3f, \"rows\": %d, \"bytes\": %d, \"allocatedBytes\": %d}%s\n",
+                    escape(stage.name), stage.wallNanos / 1e6, stage.cpuNanos / 1e6, stage.rows, stage.bytes,
+                    stage.allocatedBytes, i < ended.size() - 1 ? "," : ""));
+        }
+        json.append("]}\n");
+        try {
+            Files.write(path, json.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.printf("WARNING: couldn't write %s - %s\n", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Bytes allocated by each thread since it started - live threads and those that called threadEnding
+     *   empty if the JVM can't tell
+     *
+     * @return thread id -> bytes
+     */
+    static Map<Long, Long> allocatedByThread() {
+        Map<Long, Long> allocated = new HashMap<Long, Long>();
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return allocated;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0)
+                allocated.put(ids[i], bytes[i]);
+        }
+        // read after the live threads - a thread that ended in between has already left its bytes
+        for (Map.Entry<Long, Long> entry : ended.entrySet())
+            allocated.putIfAbsent(entry.getKey(), entry.getValue());
+        return allocated;
+    }
+
+    /**
+     * Bytes allocated by every thread since a snapshot
+     *
+     * @param before - allocatedByThread() at the start
+     */
+    static long allocatedSince(Map<Long, Long> before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : allocatedByThread().entrySet())
+            total += Math.max(entry.getValue() - before.getOrDefault(entry.getKey(), 0L), 0);
+        return total;
+    }
+
+    /**
+     * Leaves the calling thread's allocation for the stages running - the last thing a thread does
+     */
+    static void threadEnding() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            long bytes = ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+            if (bytes >= 0)
+                ended.put(Thread.currentThread().getId(), bytes);
+        }
+    }
+
+    /**
+     * CPU time of the whole process, 0 if the JVM can't tell
+     */
+    static long cpuNanos() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        return bean instanceof com.sun.management.OperatingSystemMXBean
+                ? Math.max(((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime(), 0) : 0;
+    }
+
+    // Size of a file, 0 if it isn't there
+    static long size(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
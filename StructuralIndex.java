@@ -0,0 +1,261 @@
+import java.nio.*;
+
+/**
+ * Class StructuralIndex
+ *
+ * Finds the quotes, commas and record-ending line breaks of practice-it.csv a 64 byte block at a
+ *   time, the way simdjson builds its structural index
+ *
+ *   bytes      a,"x|y",b|"""q"|        (| is a line break)
+ *   quotes     --1---1---111-1-        one bit per byte of the block
+ *   newlines   ----1----1-----1
+ *   commas     -1-----1--------
+ *   in quotes  --1111----1-11--        prefix XOR of the quotes (odd count so far)
+ *   ends       ---------1-----1        newlines & ~in quotes
+ *
+ * With "" escaping a line break ends a record exactly when an even number of quotes come before
+ *   it, so only the parity is carried from block to block.  Blocks shorter than 64 bytes at the
+ *   end of a range are done a byte at a time.  MappedCsvReader finds its field boundaries from
+ *   the same masks (classify).
+ *
+ * Blocks are classified by CLASSIFIER, picked once when the class loads:
+ *   VectorClassifier - jdk.incubator.vector compares, if it was compiled in (mvn -P vector) and the
+ *                      JVM has the module (java --add-modules jdk.incubator.vector ...)
+ *   SwarClassifier   - plain 64 bit arithmetic (SWAR), 8 bytes per long, everywhere else
+ *
+ * Buffers must be little endian (wrap() or order(ByteOrder.LITTLE_ENDIAN)) so byte i of a range
+ *   is bit i of its block
+ *
+ * Version 2.1 - 10/18/26 initial version
+ *                      comma masks, Vector API classifier with SWAR as the fallback
+ */
+class StructuralIndex {
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final long GATHER = 0x0102040810204080L;
+
+    // masks filled in by Classifier.classify
+    static final int QUOTE = 0;
+    static final int NEWLINE = 1;
+    static final int COMMA = 2;
+
+    /**
+     * Classifies 64 byte blocks - bit i of a mask is set if byte pos + i is that character
+     */
+    interface Classifier {
+        /**
+         * Quotes, line breaks & commas of the 64 bytes at pos into masks[QUOTE], [NEWLINE] & [COMMA]
+         */
+        void classify(ByteBuffer buf, int pos, long[] masks);
+
+        /**
+         * Quotes of the 64 bytes at pos
+         */
+        long quotes(ByteBuffer buf, int pos);
+    }
+
+    static final Classifier CLASSIFIER = loadClassifier();
+
+    private final long[] masks = new long[3]; // block being scanned
+    private boolean ifInQuotes; // odd number of quotes scanned so far
+    private long records;       // record-ending line breaks scanned so far
+
+    /**
+     * @param ifInQuotes - true if the first byte scanned is inside quotes
+     */
+    StructuralIndex(boolean ifInQuotes) {
+        this.ifInQuotes = ifInQuotes;
+    }
+
+    /**
+     * Little endian view of an array, as the scans need
+     */
+    static ByteBuffer wrap(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * True if the next byte to scan is inside quotes
+     */
+    public boolean isInQuotes() {
+        return ifInQuotes;
+    }
+
+    /**
+     * Number of records ended in the bytes scanned so far
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Scans [from, to), carrying on from the bytes scanned before
+     *
+     * @return offset just after the last record-ending line break, -1 if none
+     */
+    public int lastRecordEnd(ByteBuffer buf, int from, int to) {
+        return scan(buf, from, to, false);
+    }
+
+    /**
+     * Scans [from, to) up to the first record-ending line break
+     *
+     * @return offset just after it, -1 if none - the scan then covers the whole range
+     */
+    public int firstRecordEnd(ByteBuffer buf, int from, int to) {
+        return scan(buf, from, to, true);
+    }
+
+    private int scan(ByteBuffer buf, int from, int to, boolean ifFirst) {
+        int last = -1;
+        int pos = from;
+        for (; to - pos >= 64; pos += 64) {
+            CLASSIFIER.classify(buf, pos, masks);
+            long inQuotes = prefixXor(masks[QUOTE]) ^ (ifInQuotes ? -1L : 0);
+            long ends = masks[NEWLINE] & ~inQuotes;
+            if (ends != 0 && ifFirst) {
+                // a line break outside quotes - the parity after it is even
+                records++;
+                ifInQuotes = false;
+                return pos + Long.numberOfTrailingZeros(ends) + 1;
+            }
+            if (ends != 0) {
+                records += Long.bitCount(ends);
+                last = pos + 64 - Long.numberOfLeadingZeros(ends);
+            }
+            ifInQuotes = inQuotes < 0;
+        }
+
+        // the tail a byte at a time
+        for (; pos < to; pos++) {
+            byte b = buf.get(pos);
+            if (b == '"')
+                ifInQuotes = !ifInQuotes;
+            else if (b == '\n' && !ifInQuotes) {
+                records++;
+                if (ifFirst)
+                    return pos + 1;
+                last = pos + 1;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Classifies the bytes [pos, to), at most 64 - a block cut short by the end of the
+     *   buffer is done a byte at a time
+     */
+    static void classify(ByteBuffer buf, int pos, int to, long[] masks) {
+        if (to - pos >= 64) {
+            CLASSIFIER.classify(buf, pos, masks);
+            return;
+        }
+        long quotes = 0, newlines = 0, commas = 0;
+        for (int i = 0; pos + i < to; i++) {
+            byte b = buf.get(pos + i);
+            if (b == '"')
+                quotes |= 1L << i;
+            else if (b == '\n')
+                newlines |= 1L << i;
+            else if (b == ',')
+                commas |= 1L << i;
+        }
+        masks[QUOTE] = quotes;
+        masks[NEWLINE] = newlines;
+        masks[COMMA] = commas;
+    }
+
+    /**
+     * Number of quotes in [from, to)
+     */
+    static long countQuotes(ByteBuffer buf, int from, int to) {
+        long count = 0;
+        int pos = from;
+        for (; to - pos >= 64; pos += 64)
+            count += Long.bitCount(CLASSIFIER.quotes(buf, pos));
+        for (; pos < to; pos++) {
+            if (buf.get(pos) == '"')
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * High bit set in each byte of x that is 0, exact - no false hits from borrows
+     */
+    static long zeroBytes(long x) {
+        long t = (x & LOW7) + LOW7; // high bit set if the low 7 bits aren't all 0
+        return ~(t | x | LOW7);
+    }
+
+    /**
+     * The 8 high bits of zeroBytes into the low 8 bits, byte i -> bit i
+     */
+    static long gather(long highBits) {
+        return ((highBits >>> 7) * GATHER) >>> 56;
+    }
+
+    /**
+     * Bit i is the XOR of bits 0..i - set where an odd number of quotes have been seen
+     */
+    static long prefixXor(long x) {
+        x ^= x << 1;
+        x ^= x << 2;
+        x ^= x << 4;
+        x ^= x << 8;
+        x ^= x << 16;
+        x ^= x << 32;
+        return x;
+    }
+
+    /**
+     * VectorClassifier if it's there and the JVM has jdk.incubator.vector, else SWAR
+     */
+    private static Classifier loadClassifier() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Classifier) Class.forName("VectorClassifier").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // not compiled in (no -P vector) - fall back
+            }
+        }
+        return new SwarClassifier();
+    }
+
+    /**
+     * Classifier in plain 64 bit arithmetic - each word's matching bytes get their high bit set
+     *   (zeroBytes of the word XOR the character), then the 8 high bits are gathered into 8
+     *   bits of the mask by a multiply
+     */
+    static class SwarClassifier implements Classifier {
+        private static final long QUOTES = 0x2222222222222222L;   // '"' in every byte
+        private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL; // '\n' in every byte
+        private static final long COMMAS = 0x2C2C2C2C2C2C2C2CL;   // ',' in every byte
+
+        @Override
+        public void classify(ByteBuffer buf, int pos, long[] masks) {
+            long quotes = 0, newlines = 0, commas = 0;
+            for (int i = 0; i < 64; i += 8) {
+                long word = buf.getLong(pos + i);
+                quotes |= gather(zeroBytes(word ^ QUOTES)) << i;
+                newlines |= gather(zeroBytes(word ^ NEWLINES)) << i;
+                commas |= gather(zeroBytes(word ^ COMMAS)) << i;
+            }
+            masks[QUOTE] = quotes;
+            masks[NEWLINE] = newlines;
+            masks[COMMA] = commas;
+        }
+
+        @Override
+        public long quotes(ByteBuffer buf, int pos) {
+            long quotes = 0;
+            for (int i = 0; i < 64; i += 8)
+                quotes |= gather(zeroBytes(buf.getLong(pos + i) ^ QUOTES)) << i;
+            return quotes;
+        }
+
+        @Override
+        public String toString() {
+            return "SWAR";
+        }
+    }
+}
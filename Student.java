@@ -1,13 +1,15 @@
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Locale;
 import java.util.Scanner;
 
 
 /**
  * Class Student
  * 
- * This stores information for a PracticeIt student - username, first name, last name, list of problems
+ * This stores information for a PracticeIt student - username, first name, last name
+ *   the student's problems are rows of the StudentRegistry's SubmissionStore, found by id
  * 
  * @author George Hu
  * 
@@ -16,12 +18,14 @@ import java.util.Scanner;
  * Version 1.5.3 - 4/16/20 - Handle names with multiple words by adding "billy bob" around them in student usernames.txt
  * Version 2.0 - 5/30/20 added cheat checks for tries, times, code hash, red flags
  * Version 2.0.1 - 5/31/20 cleanup - added Flag class, catch null pointers
+ * Version 2.1 - 10/18/26 added hashCode & normalize, readStudents returns a StudentRegistry
+ *                      problems moved to SubmissionStore, added id
  */
 class Student {
     String userName;
     String firstName;
     String lastName;
-    ArrayList<Problem> problems;
+    int id;             // position in the StudentRegistry, -1 until registered
     int cheatingIndex;  // Count of possible cheating signs
     ArrayList<Flag> flags; // Strings of suspicious flags
 
@@ -30,7 +34,7 @@ class Student {
         this.userName = userName;
         this.firstName = firstName;
         this.lastName = lastName;
-        this.problems = new ArrayList<Problem>();
+        this.id = -1;
         this.flags = new ArrayList<Flag>();
     }
 
@@ -58,12 +62,12 @@ class Student {
         this.lastName = lastName;
     }
 
-    public ArrayList<Problem> getProblems() {
-        return problems;
+    public int getId() {
+        return id;
     }
 
-    public void setProblems(ArrayList<Problem> problems) {
-        this.problems = problems;
+    public void setId(int id) {
+        this.id = id;
     }
 
     public int getCheatingIndex() {
@@ -101,21 +105,38 @@ class Student {
         return (s.getUserName().equalsIgnoreCase(this.getUserName()));
     }
 
+    /**
+     * Consistent with equals - hashes the case-folded userName
+     */
+    @Override
+    public int hashCode() {
+        return normalize(userName).hashCode();
+    }
+
+    /**
+     * Case-folds a userName so names that are equalsIgnoreCase have the same key
+     * 
+     * @param userName - "JohnDoe"
+     * @return "johndoe"
+     */
+    public static String normalize(String userName) {
+        return userName.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public String toString() {
-        return "Student [userName=" + userName + ", firstName=" + firstName + ", lastName=" + lastName + ", problems="
-                + problems + "]";
+        return "Student [userName=" + userName + ", firstName=" + firstName + ", lastName=" + lastName + "]";
     }
 
     /**
      * readStudents - read list of students into class member, stores into class variables
      * 
      * @return NULL if can't find the list of students
-     *          ArrayList of Students found
+     *          StudentRegistry of Students found
      * @throws FileNotFoundException
      */
-    public static ArrayList<Student> readStudents() throws FileNotFoundException {
-        ArrayList<Student> studentList = null;
+    public static StudentRegistry readStudents() throws FileNotFoundException {
+        StudentRegistry studentList = null;
         if (PracticeItGrader.ifDebug) {
             System.out.println("readStudents Begin");
         }
@@ -124,7 +145,7 @@ class Student {
         File fStudents = new File("Student Usernames.txt");
         Boolean ifClassList = fStudents.canRead();
         if (ifClassList) {
-            studentList = new ArrayList<Student>();
+            studentList = new StudentRegistry();
             Scanner sc = new Scanner(fStudents);
             int i = 1;
             while (sc.hasNextLine()) {
@@ -0,0 +1,309 @@
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+/**
+ * Class StudentPass
+ *
+ * The per-student part of PracticeItGrader.printResults on all cores - for every student in the class
+ *   list the attempted, missing, failed & extra problems, the problems done by the deadline and each
+ *   assigned problem's code hash, fingerprints, tries & time for the cheat checks
+ *
+ *   students  [0 .. 255][256 .. 511] ...   one task per range, each with its own Accumulator
+ *   tasks     -> Result per student         printed in class list order as each block finishes
+ *             -> Accumulator per range      rows & times per assigned problem, no locks & no shared maps
+ *   merge     -> one task per problem       walks the Accumulators in range order into the problem's maps
+ *
+ * Each problem's maps are filled by a single thread in student order, so they come out exactly as the
+ *   sequential loop left them and the report doesn't change.  Students are processed a block at a time
+ *   to bound the Results held before they are printed
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class StudentPass {
+    // students per task, enough to amortize a task & small enough to balance the cores
+    private static final int CHUNK = 256;
+    // students whose Results are held before printing
+    private static final int BLOCK = 64 * CHUNK;
+
+    private final ArrayList<Problem> problemList;
+    private final StudentRegistry students;
+    private final SubmissionStore submissions;
+    private final ProblemIndex assignedIndex;
+    private final LocalDateTime dtDeadline;
+    private final LocalDateTime dtStart;
+    private final long deadline;
+    private final long start;
+
+    /**
+     * One student's line of the report
+     */
+    static class Result {
+        int attempted;               // assigned problems attempted
+        ArrayList<Problem> missing;  // sorted
+        int[] failed;                // ProblemKeys, sorted
+        int countFailed;
+        int[] extras;                // ProblemKeys, sorted
+        int countExtras;
+        int countAttemptByDeadline;
+        int countOld;
+    }
+
+    /**
+     * Cheat check data of a range of students, per assigned problem in student order
+     *   rows  - (student, row) pairs for the code hash, fingerprints & tries
+     *   times - (student, seconds) pairs
+     */
+    static class Accumulator {
+        final int[][] rows;
+        final int[] countRows;
+        final long[][] times;
+        final int[] countTimes;
+
+        Accumulator(int problems) {
+            rows = new int[problems][];
+            countRows = new int[problems];
+            times = new long[problems][];
+            countTimes = new int[problems];
+        }
+
+        void addRow(int problem, int student, int row) {
+            int count = countRows[problem];
+            if (rows[problem] == null)
+                rows[problem] = new int[16];
+            else if (count + 2 > rows[problem].length)
+                rows[problem] = Arrays.copyOf(rows[problem], rows[problem].length * 2);
+            rows[problem][count] = student;
+            rows[problem][count + 1] = row;
+            countRows[problem] = count + 2;
+        }
+
+        void addTime(int problem, int student, long seconds) {
+            int count = countTimes[problem];
+            if (times[problem] == null)
+                times[problem] = new long[16];
+            else if (count + 2 > times[problem].length)
+                times[problem] = Arrays.copyOf(times[problem], times[problem].length * 2);
+            times[problem][count] = student;
+            times[problem][count + 1] = seconds;
+            countTimes[problem] = count + 2;
+        }
+    }
+
+    /**
+     * @param problemList - assigned problems, their maps are filled by run
+     * @param students - class list with the submissions
+     * @param dtDeadline - null if there's no deadline
+     */
+    StudentPass(ArrayList<Problem> problemList, StudentRegistry students, LocalDateTime dtDeadline) {
+        this.problemList = problemList;
+        this.students = students;
+        this.submissions = students.getSubmissions();
+        this.assignedIndex = new ProblemIndex(problemList);
+        this.dtDeadline = dtDeadline;
+        // This is an arbitrary # of days to flag "old" problems done for a previous class, etc
+        this.dtStart = dtDeadline == null ? null : dtDeadline.minusDays(10);
+        this.deadline = dtDeadline == null ? 0 : SubmissionStore.toEpochSeconds(dtDeadline);
+        this.start = dtDeadline == null ? 0 : SubmissionStore.toEpochSeconds(dtStart);
+    }
+
+    /**
+     * Processes every student, printing them in class list order, then fills the assigned problems'
+     *   code hash, k-gram, tries & times maps
+     *
+     * @param report
+     * @param ifClassList - false only prints the student names
+     */
+    public void run(ReportWriter report, boolean ifClassList) throws IOException {
+        List<Student> list = students.getStudents();
+        List<Accumulator> accumulators = new ArrayList<Accumulator>();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        for (int blockStart = 0; blockStart < list.size(); blockStart += BLOCK) {
+            int blockEnd = Math.min(blockStart + BLOCK, list.size());
+            List<Result[]> results = Collections.emptyList();
+            if (ifClassList) {
+                List<Callable<Result[]>> tasks = new ArrayList<Callable<Result[]>>();
+                for (int from = blockStart; from < blockEnd; from += CHUNK) {
+                    final int first = from, last = Math.min(from + CHUNK, blockEnd);
+                    final Accumulator acc = new Accumulator(problemList.size());
+                    accumulators.add(acc);
+                    tasks.add(() -> analyze(list, first, last, acc));
+                }
+                results = ParallelCsvParser.invokeAll(pool, tasks);
+            }
+
+            for (int i = blockStart; i < blockEnd; i++) {
+                Student s = list.get(i);
+                // Always print out the student usernames, if no class list this is all we'll do
+                report.student(i + 1,
+                        // Print encrypted names to hide student info when sharing samples
+                        PracticeItGrader.ifEncrypt ? Student.toHash(s.getUserName()) : s.getUserName(),
+                        PracticeItGrader.ifEncrypt ? Student.toHash(s.getFirstName()) : s.getFirstName(),
+                        PracticeItGrader.ifEncrypt ? Student.toHash(s.getLastName()) : s.getLastName());
+
+                // Only print problems if we already have the class list
+                if (ifClassList) {
+                    Result r = results.get((i - blockStart) / CHUNK)[(i - blockStart) % CHUNK];
+                    // Print # attempted out of assigned, but don't count any extras
+                    //   then "Missing SC 1.2", "Failed: SC 2.3", "Extras: Ex 3.4"
+                    report.studentProblems(r.attempted, problemList.size(), r.missing,
+                            r.failed, r.countFailed, r.extras, r.countExtras);
+
+                    // Print how many completed by deadline
+                    if (dtDeadline != null)
+                        report.studentDeadline(r.countAttemptByDeadline, dtDeadline, r.countOld, dtStart);
+                }
+                report.endStudent(); // newline for each student
+            }
+        }
+
+        // Transfer each student's problem info to the whole class' list of assigned problems
+        //   each problem is only written by its own task
+        IntStream.range(0, problemList.size()).parallel().forEach(p -> merge(p, list, accumulators));
+    }
+
+    /**
+     * Works out the report lines of students [first, last) and collects their cheat check data
+     *
+     * @return Results by position from first
+     */
+    private Result[] analyze(List<Student> list, int first, int last, Accumulator acc) {
+        Result[] results = new Result[last - first];
+        for (int i = first; i < last; i++)
+            results[i - first] = analyze(list.get(i), i, acc);
+        return results;
+    }
+
+    private Result analyze(Student s, int position, Accumulator acc) {
+        int rowCount = submissions.countRows(s.getId());
+
+        // assigned problems the student attempted, by position in problemList
+        boolean[] attempted = new boolean[problemList.size()];
+        // ProblemKeys of failed & extra problems
+        Result r = new Result();
+        r.extras = new int[rowCount];
+        r.failed = new int[rowCount];
+
+        // Rows of the assigned problems attempted - these get submission times
+        int[] timedRows = new int[rowCount];
+        int countTimed = 0;
+
+        /////////////////////////////////////////////////////////////
+        // Process each problem for printing
+        /////////////////////////////////////////////////////////////
+        for (int row = submissions.firstRow(s.getId()); row != -1; row = submissions.nextRow(row)) {
+            int key = submissions.getProblem(row);
+
+            // Cheat Checking - keep the row for the assigned problem's maps
+            int indexAssignedProblem = assignedIndex.indexOf(key);
+            if (indexAssignedProblem != -1)
+                acc.addRow(indexAssignedProblem, position, row);
+
+            if (indexAssignedProblem != -1 && !attempted[indexAssignedProblem]) {
+                // Problem is on the assigned list
+                // check if it's done by deadline
+                if (dtDeadline != null) {
+                    if (submissions.getTime(row) <= deadline)
+                        r.countAttemptByDeadline++;
+                    if (submissions.getTime(row) < start)
+                        r.countOld++;
+                    timedRows[countTimed++] = row;
+                }
+
+                if (!submissions.isSolved(row))
+                    r.failed[r.countFailed++] = key;
+                // remove it from list of assigned problems
+                attempted[indexAssignedProblem] = true;
+            } else {
+                // add it to the extras list
+                r.extras[r.countExtras++] = key;
+            }
+        }
+        r.attempted = rowCount - r.countExtras;
+
+        // Missing is whatever is left of the assigned problems
+        r.missing = new ArrayList<Problem>();
+        for (int iAssigned = 0; iAssigned < attempted.length; iAssigned++) {
+            if (!attempted[iAssigned])
+                r.missing.add(problemList.get(iAssigned));
+        }
+        Collections.sort(r.missing);
+        ProblemKey.sort(r.failed, r.countFailed);
+        ProblemKey.sort(r.extras, r.countExtras);
+
+        ///////////////////////////////////////////////////////////////
+        // Store problem times
+        //
+        // Find length of time to complete each problem for later comparison to others
+        // We can only do this once all problems are read by sorting & subtracting
+        // We will store a 0 second duration to mark the first problem
+        // Problems with a long delay will be filtered out when checking for cheaters
+        ///////////////////////////////////////////////////////////////
+        storeProblemTimes(position, timedRows, countTimed, acc);
+        return r;
+    }
+
+    /**
+     * Collects the time each assigned problem took
+     *
+     * Sorts the student's submissions by timestamp once, then walks them in order and
+     *   records the seconds since the previous submission - O(p log p) per student
+     *   The first submission gets 0 seconds
+     *
+     * @param position - student's position in the class list
+     * @param rows - rows of the assigned problems to time
+     * @param count - number of rows used in rows
+     * @param acc - the range's Accumulator
+     */
+    private void storeProblemTimes(int position, int[] rows, int count, Accumulator acc) {
+        if (count == 0)
+            return;
+
+        // pack (seconds after the earliest submission, position in rows) into a long
+        //   and sort primitives - a student's submissions never span 2^31 seconds
+        long minTime = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++)
+            minTime = Math.min(minTime, submissions.getTime(rows[i]));
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++)
+            order[i] = (submissions.getTime(rows[i]) - minTime) << 32 | i;
+        Arrays.sort(order, 0, count);
+
+        long previous = minTime;
+        for (int i = 0; i < count; i++) {
+            int row = rows[(int) order[i]];
+            long time = submissions.getTime(row);
+            acc.addTime(assignedIndex.indexOf(submissions.getProblem(row)), position, time - previous);
+            previous = time;
+        }
+    }
+
+    /**
+     * Fills one assigned problem's maps from every range in student order
+     *
+     * @param problem - position in problemList
+     */
+    private void merge(int problem, List<Student> list, List<Accumulator> accumulators) {
+        Problem assignedProblem = problemList.get(problem);
+        for (Accumulator acc : accumulators) {
+            int[] rows = acc.rows[problem];
+            for (int i = 0; i < acc.countRows[problem]; i += 2) {
+                String studentName = list.get(rows[i]).getUserName();
+                int row = rows[i + 1];
+                assignedProblem.getCodeHash().put(studentName, submissions.getCodeHash(row));
+                if (submissions.getKGrams(row) != null)
+                    assignedProblem.getKGrams().put(studentName, submissions.getKGrams(row));
+                assignedProblem.getTries().put(studentName, submissions.getTries(row));
+            }
+        }
+        // Store this <Student, time> into the original problem list's map
+        for (Accumulator acc : accumulators) {
+            long[] times = acc.times[problem];
+            for (int i = 0; i < acc.countTimes[problem]; i += 2)
+                assignedProblem.getTimes().put(list.get((int) times[i]).getUserName(), times[i + 1]);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.*;
+
+/**
+ * Class StudentRegistry
+ *
+ * The class list - Students in the order they were added (for printing) with a hash index
+ *   on the case-folded userName so finding a student is O(1) instead of ArrayList.indexOf
+ *   comparing every userName with equalsIgnoreCase
+ *
+ * Used by Student.readStudents, Problem.readProblems and PracticeItGrader.flagCheater
+ *
+ * Each student gets an id (position in the class list) which keys their rows in the
+ *   registry's SubmissionStore
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class StudentRegistry implements Iterable<Student> {
+    private final ArrayList<Student> students = new ArrayList<Student>();
+    private final HashMap<String, Student> byUserName = new HashMap<String, Student>();
+    private final SubmissionStore submissions = new SubmissionStore();
+
+    /**
+     * Adds a student to the end of the class list
+     *   if the userName is already registered the first student keeps the lookups
+     *   (same as ArrayList.indexOf finding the first match)
+     *
+     * @param s
+     */
+    public void add(Student s) {
+        s.setId(students.size());
+        students.add(s);
+        byUserName.putIfAbsent(Student.normalize(s.getUserName()), s);
+    }
+
+    /**
+     * Finds a student ignoring case
+     *
+     * @param userName
+     * @return Student or null if not in the class list
+     */
+    public Student get(String userName) {
+        return byUserName.get(Student.normalize(userName));
+    }
+
+    /**
+     * Finds a student by id
+     *
+     * @param id - Student.getId()
+     */
+    public Student get(int id) {
+        return students.get(id);
+    }
+
+    public boolean contains(String userName) {
+        return byUserName.containsKey(Student.normalize(userName));
+    }
+
+    public int size() {
+        return students.size();
+    }
+
+    /**
+     * Every submission of the registered students
+     */
+    public SubmissionStore getSubmissions() {
+        return submissions;
+    }
+
+    /**
+     * Students in the order they were added - don't modify, use add()
+     */
+    public List<Student> getStudents() {
+        return Collections.unmodifiableList(students);
+    }
+
+    @Override
+    public Iterator<Student> iterator() {
+        return getStudents().iterator();
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * Class Submission
+ * 
+ * The fields of one practice-it.csv record once it has been parsed - one student's attempt at one problem
+ *   Problem.parseRecord fills it in from the CSV, Problem.addSubmission stores it into the student
+ *   
+ *   The Solution Code itself isn't kept, only its hash, k-gram fingerprints and how many lines hit a red flag
+ * 
+ * Version 2.1 - 10/18/26 initial version, lets records be parsed on other threads and added in file order
+ */
+class Submission {
+    String userName;
+    String lastName;  // null unless this is the first record seen for the student
+    String firstName; // null unless this is the first record seen for the student
+    String type;      // "Exercise" or "Self-Check"
+    int chapter;
+    int number;
+    int key;          // ProblemKey of type, chapter, number
+    boolean ifCompleted;
+    long time;        // epoch seconds, see SubmissionStore.toEpochSeconds
+    int tries;
+    long codeHash;
+    long[] kgrams;    // Winnower fingerprints - assigned exercises only, otherwise null
+    int redFlagLines; // strikes - code lines containing a red flag of the problem, counted per red flag
+    String[] redFlags;  // red flags found, null if none
+}
@@ -0,0 +1,176 @@
+import java.time.*;
+import java.util.*;
+
+/**
+ * Class SubmissionStore
+ *
+ * Columnar store of every student submission read from practice-it.csv
+ *
+ * Each submission used to be its own Problem with three single entry HashMaps (tries, codeHash, times).
+ *   Here a submission is just a row number and each field is a column in a primitive array,
+ *   about 34 bytes a row, and the analysis loops walk the arrays directly
+ *
+ *   row -> student id, ProblemKey, solved, epoch seconds, tries, code hash, k-gram fingerprints
+ *
+ * Rows are appended in file order.  Each student's rows are chained together (firstRow/nextRow)
+ *   so a student's submissions can be walked without searching
+ *
+ *   for (int row = store.firstRow(id); row != -1; row = store.nextRow(row))
+ *       ...
+ *
+ * Version 2.1 - 10/18/26 initial version, replaces per-row Problem objects in Student
+ */
+class SubmissionStore {
+    private int size;
+    private int[] student = new int[1024];
+    private int[] problem = new int[1024];
+    private boolean[] solved = new boolean[1024];
+    private long[] time = new long[1024];
+    private int[] tries = new int[1024];
+    private long[] codeHash = new long[1024];
+    private long[][] kgrams = new long[1024][]; // Winnower fingerprints, null if not kept
+    private int[] next = new int[1024]; // next row of the same student or -1
+
+    // per student id
+    private int[] first = new int[64];
+    private int[] last = new int[64];
+    private int[] count = new int[64];
+
+    /**
+     * Appends a submission
+     *
+     * @param studentId - Student.getId()
+     * @param key - ProblemKey
+     * @param ifCompleted - solved
+     * @param epochSeconds - submission time, see toEpochSeconds
+     * @param tries - number of attempts
+     * @param codeHash - CodeFingerprint of the Solution Code
+     * @return row number
+     */
+    public int add(int studentId, int key, boolean ifCompleted, long epochSeconds, int tries, long codeHash) {
+        if (size == student.length)
+            grow();
+        if (studentId >= first.length)
+            growStudents(studentId + 1);
+
+        int row = size++;
+        this.student[row] = studentId;
+        this.problem[row] = key;
+        this.solved[row] = ifCompleted;
+        this.time[row] = epochSeconds;
+        this.tries[row] = tries;
+        this.codeHash[row] = codeHash;
+        this.next[row] = -1;
+
+        // chain onto the student's rows
+        if (count[studentId] == 0)
+            first[studentId] = row;
+        else
+            next[last[studentId]] = row;
+        last[studentId] = row;
+        count[studentId]++;
+        return row;
+    }
+
+    /**
+     * Number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getStudent(int row) {
+        return student[row];
+    }
+
+    public int getProblem(int row) {
+        return problem[row];
+    }
+
+    public boolean isSolved(int row) {
+        return solved[row];
+    }
+
+    public long getTime(int row) {
+        return time[row];
+    }
+
+    public int getTries(int row) {
+        return tries[row];
+    }
+
+    public long getCodeHash(int row) {
+        return codeHash[row];
+    }
+
+    /**
+     * Winnower fingerprints of the Solution Code
+     *
+     * @param row
+     * @return sorted fingerprints or null if they weren't kept
+     */
+    public long[] getKGrams(int row) {
+        return kgrams[row];
+    }
+
+    public void setKGrams(int row, long[] kgrams) {
+        this.kgrams[row] = kgrams;
+    }
+
+    /**
+     * First row of a student
+     *
+     * @param studentId
+     * @return row or -1 if the student has no submissions
+     */
+    public int firstRow(int studentId) {
+        return studentId < first.length && count[studentId] != 0 ? first[studentId] : -1;
+    }
+
+    /**
+     * Next row of the same student
+     *
+     * @param row
+     * @return row or -1 at the student's last submission
+     */
+    public int nextRow(int row) {
+        return next[row];
+    }
+
+    /**
+     * Number of rows for a student
+     */
+    public int countRows(int studentId) {
+        return studentId < count.length ? count[studentId] : 0;
+    }
+
+    /**
+     * The timestamps in the CSV have no time zone, so they're kept as seconds
+     *   as if the local time were UTC - fine for comparing & subtracting
+     *
+     * @param date
+     * @return seconds since 1970-01-01T00:00:00
+     */
+    public static long toEpochSeconds(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private void grow() {
+        int capacity = student.length * 2;
+        student = Arrays.copyOf(student, capacity);
+        problem = Arrays.copyOf(problem, capacity);
+        solved = Arrays.copyOf(solved, capacity);
+        time = Arrays.copyOf(time, capacity);
+        tries = Arrays.copyOf(tries, capacity);
+        codeHash = Arrays.copyOf(codeHash, capacity);
+        kgrams = Arrays.copyOf(kgrams, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+
+    private void growStudents(int minimum) {
+        int capacity = Math.max(first.length * 2, minimum);
+        first = Arrays.copyOf(first, capacity);
+        last = Arrays.copyOf(last, capacity);
+        count = Arrays.copyOf(count, capacity);
+    }
+}
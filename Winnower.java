@@ -0,0 +1,101 @@
+import java.util.*;
+
+/**
+ * Class Winnower
+ *
+ * Selects the k-gram fingerprints of a piece of code by winnowing (Schleimer, Wilkerson & Aiken -
+ *   the algorithm behind MOSS) so two submissions can be compared by how many fingerprints they share
+ *
+ *   tokens      int  ID  =  0  ;  ID  =  ID  +  1  ;
+ *   k-grams     hash of every K tokens in a row
+ *   windows     every WINDOW k-grams in a row - the smallest hash of each window is kept
+ *
+ * Any run of K + WINDOW - 1 tokens that two submissions share gives them a common fingerprint,
+ *   and only about 2 / (WINDOW + 1) of the k-grams are kept
+ *
+ * It's fed the token hashes by CodeFingerprint with every identifier the same
+ *   so renaming variables doesn't change the fingerprints
+ *
+ *   Winnower w = new Winnower();
+ *   long hash = CodeFingerprint.of(code, 0, code.length(), false, w);
+ *   long[] kgrams = w.finish();
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class Winnower {
+    static final int K = 5;      // tokens in a k-gram
+    static final int WINDOW = 4; // k-grams in a window
+
+    private static final long[] NONE = new long[0];
+
+    private final long[] tokens = new long[K];      // last K token hashes (ring)
+    private final long[] window = new long[WINDOW]; // last WINDOW k-gram hashes (ring)
+    private int tokenCount;
+    private int gramCount;
+    private int selectedGram = -1; // k-gram picked by the last window
+    private long[] selected = new long[16];
+    private int selectedCount;
+
+    /**
+     * Feeds the next token
+     *
+     * @param tokenHash - hash of the token, identifiers normalized
+     */
+    public void addToken(long tokenHash) {
+        tokens[tokenCount++ % K] = tokenHash;
+        if (tokenCount < K)
+            return;
+
+        long gram = 0;
+        for (int i = tokenCount - K; i < tokenCount; i++)
+            gram = gram * 0x9E3779B97F4A7C15L + tokens[i % K];
+        window[gramCount++ % WINDOW] = CodeFingerprint.fmix64(gram);
+        if (gramCount >= WINDOW)
+            select(gramCount - WINDOW);
+    }
+
+    /**
+     * Ends the code and returns its fingerprints, then starts over
+     *   code too short for a whole window keeps its smallest k-gram
+     *
+     * @return sorted fingerprints without repeats, empty if fewer than K tokens
+     */
+    public long[] finish() {
+        if (gramCount > 0 && gramCount < WINDOW)
+            select(0);
+
+        long[] result = NONE;
+        if (selectedCount != 0) {
+            Arrays.sort(selected, 0, selectedCount);
+            int count = 1;
+            for (int i = 1; i < selectedCount; i++) {
+                if (selected[i] != selected[count - 1])
+                    selected[count++] = selected[i];
+            }
+            result = Arrays.copyOf(selected, count);
+        }
+        tokenCount = 0;
+        gramCount = 0;
+        selectedGram = -1;
+        selectedCount = 0;
+        return result;
+    }
+
+    /**
+     * Keeps the smallest k-gram of the window starting at gram first
+     *   the rightmost one on ties, and only if a previous window didn't already keep it
+     */
+    private void select(int first) {
+        int min = gramCount - 1;
+        for (int i = gramCount - 2; i >= first; i--) {
+            if (window[i % WINDOW] < window[min % WINDOW])
+                min = i;
+        }
+        if (min != selectedGram) {
+            selectedGram = min;
+            if (selectedCount == selected.length)
+                selected = Arrays.copyOf(selected, selectedCount * 2);
+            selected[selectedCount++] = window[min % WINDOW];
+        }
+    }
+}
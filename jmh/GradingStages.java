@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class GradingStages
+ *
+ * bench.Stages over Benchmark's stage ops, so the JMH benchmarks of jmh/bench time exactly what
+ *   java Benchmark does, on exports made the same way
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+public class GradingStages implements bench.Stages {
+    private Benchmark benchmark;
+
+    public GradingStages() {
+    }
+
+    @Override
+    public void generate(Path folder, int students, String chapters, int lines, long seed) throws IOException {
+        Map<String, String> options = new HashMap<String, String>();
+        options.put("chapters", chapters);
+        options.put("lines", Integer.toString(lines));
+        options.put("seed", Long.toString(seed));
+        benchmark = new Benchmark(options);
+        benchmark.generate(folder, students);
+    }
+
+    @Override
+    public void setReadMode(String mode) {
+        Benchmark.setReadMode(mode);
+    }
+
+    @Override
+    public Object newRead() {
+        return benchmark.newRead();
+    }
+
+    @Override
+    public long readProblems(Object state) throws IOException {
+        return benchmark.readProblems((Object[]) state);
+    }
+
+    @Override
+    public long structuralIndex() {
+        return benchmark.structuralIndex();
+    }
+
+    @Override
+    public long computeCodeHash() {
+        return benchmark.computeCodeHash();
+    }
+
+    @Override
+    public long redFlagScanner() {
+        return benchmark.redFlags();
+    }
+
+    @Override
+    public long duplicatesAndSimilar() {
+        return benchmark.duplicatesAndSimilar();
+    }
+
+    @Override
+    public Object newReport() throws IOException {
+        return benchmark.newReport();
+    }
+
+    @Override
+    public long printResults(Object state) throws IOException {
+        return benchmark.printResults((Object[]) state);
+    }
+}
@@ -0,0 +1,41 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Class CodeBenchmark
+ *
+ * The stages that start from memory - record ends of the whole export, every Solution Code hashed
+ *   & winnowed, every Solution Code scanned for its problem's red flags, and the cheat checks
+ *   (CodeGroups & SimilarityIndex) on every assigned exercise
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodeBenchmark {
+    @Benchmark
+    public long structuralIndex(Dataset data) {
+        return data.stages.structuralIndex();
+    }
+
+    @Benchmark
+    public long computeCodeHash(Dataset data) {
+        return data.stages.computeCodeHash();
+    }
+
+    @Benchmark
+    public long redFlagScanner(Dataset data) {
+        return data.stages.redFlagScanner();
+    }
+
+    @Benchmark
+    public long duplicatesAndSimilar(Dataset data) {
+        return data.stages.duplicatesAndSimilar();
+    }
+}
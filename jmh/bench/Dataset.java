@@ -0,0 +1,53 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Class Dataset
+ *
+ * One generated export per trial, shared by the threads of a benchmark.  students is the class size,
+ *   so running several shows how each stage scales
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+@State(Scope.Benchmark)
+public class Dataset {
+    @Param({"200", "1000", "5000"})
+    public int students;
+
+    @Param({"1-2"})
+    public String chapters;
+
+    @Param({"15"})
+    public int lines;
+
+    @Param({"1"})
+    public long seed;
+
+    Stages stages;
+    private Path folder;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException, ReflectiveOperationException {
+        stages = Stages.load();
+        folder = Files.createTempDirectory("practiceit-jmh");
+        stages.generate(folder, students, chapters, lines, seed);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path file : paths)
+                Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Class ReadBenchmark
+ *
+ * Problem.readProblems of the whole export in each of its modes, a fresh class list & assigned
+ *   problems for every op.  incremental replays the cache its first op writes
+ *
+ * -prof gc only counts allocation of threads alive when an iteration ends, so it leaves out the
+ *   pipelined mode's stage threads - java Benchmark counts them (StageStats.allocatedSince)
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmark {
+    @Param({"sequential", "mapped", "parallel", "pipelined", "dedup", "incremental"})
+    public String mode;
+
+    private Object state;
+
+    @Setup(Level.Trial)
+    public void setMode(Dataset data) {
+        data.stages.setReadMode(mode);
+    }
+
+    @Setup(Level.Invocation)
+    public void newRead(Dataset data) {
+        state = data.stages.newRead();
+    }
+
+    @Benchmark
+    public long readProblems(Dataset data) throws IOException {
+        return data.stages.readProblems(state);
+    }
+}
@@ -0,0 +1,33 @@
+package bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Class ReportBenchmark
+ *
+ * PracticeItGrader.printResults, written to nowhere, on a fresh read of the export for every op
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+    private Object state;
+
+    @Setup(Level.Invocation)
+    public void newReport(Dataset data) throws IOException {
+        state = data.stages.newReport();
+    }
+
+    @Benchmark
+    public long printResults(Dataset data) throws IOException {
+        return data.stages.printResults(state);
+    }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Interface Stages
+ *
+ * The grader's stages as the JMH benchmarks see them.  The grader is in the default package, which
+ *   code in a package can't name, and JMH won't take benchmarks in the default package - so
+ *   GradingStages (jmh/GradingStages.java, default package) implements this over Benchmark's ops
+ *   and the benchmarks load it by name
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+public interface Stages {
+    /**
+     * Generates a practice-it.csv export with DatasetGenerator and sets up the inputs of the stages
+     *
+     * @param folder - where the export is written
+     * @param students - class size
+     * @param chapters - chapters of "BJP Problem Names.csv" whose problems are in it, e.g. 1-2
+     * @param lines - code lines per solution
+     * @param seed - of the generator
+     */
+    void generate(Path folder, int students, String chapters, int lines, long seed) throws IOException;
+
+    /**
+     * @param mode - sequential, mapped, parallel, pipelined, dedup or incremental
+     */
+    void setReadMode(String mode);
+
+    /**
+     * Fresh class list & assigned problems for readProblems
+     */
+    Object newRead();
+
+    /**
+     * @param state - from newRead
+     * @return number of submissions read
+     */
+    long readProblems(Object state) throws IOException;
+
+    long structuralIndex();
+
+    long computeCodeHash();
+
+    long redFlagScanner();
+
+    long duplicatesAndSimilar();
+
+    /**
+     * Assigned problems & the students read into them, for printResults
+     */
+    Object newReport() throws IOException;
+
+    /**
+     * @param state - from newReport
+     */
+    long printResults(Object state) throws IOException;
+
+    /**
+     * The grader's implementation
+     */
+    static Stages load() throws ReflectiveOperationException {
+        return (Stages) Class.forName("GradingStages").getDeclaredConstructor().newInstance();
+    }
+}
@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Class CsvSourceTest
+ *
+ * CsvReader & MappedCsvReader must give the same values for the same file - Problem.readProblems
+ *   reads with one or the other depending on the mode, so any difference changes the report.
+ *   Each check writes a file and reads it with both, comparing every field of every record as
+ *   a String, its codeHash & k-grams and its red flags
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class CsvSourceTest {
+    private static final String HEADER = "user,problem,code\n";
+    private static final RedFlagScanner SCANNER = new RedFlagScanner(
+            Arrays.asList("\"", "x;", "é", "�", "\r", "😀"));
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void invalidUtf8() throws IOException {
+        assertSame(record(
+                "u1,p,\"String s = ", 0xE9, " + x; int y = 1;\"\n",
+                "u2,p,\"s = ", 0xE9, "\"\"\"\" + x;\"\n",     // stray lead byte before "" - it mustn't swallow a quote
+                "u3,p,a", 0xC3, ",", 0xE2, 0x82, "\n",        // cut short by the end of the field
+                "u4,p,\"", 0xE2, 0x82, "\"\"x\"\n",
+                "u5,p,\"", 0xC0, 0xAF, 0x80, 0xBF, 0xF8, 0xFF, "\"\n", // overlong, lone continuations, never valid
+                "u6,p,\"", 0xE0, 0x80, 0x80, 0xED, 0xA0, 0x80, 0xF0, 0x8F, 0xBF, 0xBF, "\"\n", // overlong, surrogate
+                "u7,p,\"", 0xF4, 0x90, 0x80, 0x80, 0xF5, 0x80, 0xF0, 0x9F, 0x98, "x;\"\n",     // past U+10FFFF, cut short
+                "u8,p,\"", 0xC3, 0xA9, 0xE2, 0x82, 0xAC, 0xF0, 0x9F, 0x98, 0x80, "\"\n",     // valid
+                "u9,p,", 0xE2, 0x82));                        // cut short by the end of the file
+    }
+
+    @Test
+    void contentAfterClosingQuote() throws IOException {
+        assertSame(record(
+                "u1,\"p\"q,\"abc\"def\n",
+                "u2,\"p\" ,\"a\"\"b\"x\"y\"z\n",
+                "u3,\"\"\"\"\"\",\"\"\n",
+                "u4,p,\"abc\"\r\n",
+                "u5,p,\"abc\""));
+    }
+
+    @Test
+    void bareCarriageReturn() throws IOException {
+        assertSame(record(
+                "u1,a\rb,c\r\r\n",
+                "u2,\r\"p\",\"x\r\"\r\n",
+                "u3,p\r,\"a\rb\"\r\r\n",
+                "u4,\r,\r\n",
+                "u5,p,\r"));
+    }
+
+    @Test
+    void randomRecords() throws IOException {
+        // mostly the characters that matter to the state machines & the UTF-8 decoder
+        int[] alphabet = {'"', '"', '"', ',', ',', '\n', '\r', '\r', 'a', 'x', ';', ' ',
+                0x80, 0xA9, 0xBF, 0xC3, 0xE2, 0xED, 0xF0, 0xF4, 0xF8};
+        Random random = new Random(1);
+        for (int file = 0; file < 200; file++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            bytes.writeBytes(HEADER.getBytes(StandardCharsets.US_ASCII));
+            int length = random.nextInt(400);
+            for (int i = 0; i < length; i++)
+                bytes.write(alphabet[random.nextInt(alphabet.length)]);
+            assertSame(bytes.toByteArray());
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // Helpers
+    ///////////////////////////////////////////////////////////////////
+
+    /**
+     * The header then the parts - Strings as ASCII, Integers as single bytes
+     */
+    private static byte[] record(Object... parts) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.writeBytes(HEADER.getBytes(StandardCharsets.US_ASCII));
+        for (Object part : parts) {
+            if (part instanceof Integer)
+                bytes.write((Integer) part);
+            else
+                bytes.writeBytes(((String) part).getBytes(StandardCharsets.US_ASCII));
+        }
+        return bytes.toByteArray();
+    }
+
+    private void assertSame(byte[] contents) throws IOException {
+        Path file = Files.write(folder.resolve("practice-it.csv"), contents);
+        try (CsvReader stream = new CsvReader(file); MappedCsvReader mapped = new MappedCsvReader(file)) {
+            while (true) {
+                boolean ifRecord = stream.next();
+                assertEquals(ifRecord, mapped.next(), "records of " + Arrays.toString(contents));
+                if (!ifRecord)
+                    break;
+                String where = "record " + stream.getRecordNumber() + " of " + Arrays.toString(contents);
+                assertEquals(stream.getRecordNumber(), mapped.getRecordNumber(), where);
+                assertEquals(stream.fieldCount(), mapped.fieldCount(), where);
+                for (int i = 0; i < stream.fieldCount(); i++) {
+                    assertEquals(stream.fieldString(i), mapped.fieldString(i), where + " field " + i);
+                    Winnower streamKGrams = new Winnower();
+                    Winnower mappedKGrams = new Winnower();
+                    assertEquals(stream.codeHash(i, streamKGrams), mapped.codeHash(i, mappedKGrams), where + " field " + i);
+                    assertArrayEquals(streamKGrams.finish(), mappedKGrams.finish(), where + " field " + i);
+                    assertArrayEquals(stream.scanRedFlags(i, SCANNER), mapped.scanRedFlags(i, SCANNER), where + " field " + i);
+                }
+            }
+        }
+    }
+}
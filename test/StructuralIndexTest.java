@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class StructuralIndexTest
+ *
+ * StructuralIndex.CLASSIFIER (the Vector API one under mvn -P vector) and the SWAR fallback must
+ *   give the masks a byte at a time would, and the record ends found from them must be the ones
+ *   a byte at a time finds, from any start and whatever the block alignment
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class StructuralIndexTest {
+    private static final byte[] ALPHABET = {'"', '"', ',', ',', '\n', '\r', 'a', 'x', ' ', (byte) 0xA2, (byte) 0xAC};
+
+    @Test
+    void classifiers() {
+        StructuralIndex.Classifier swar = new StructuralIndex.SwarClassifier();
+        Random random = new Random(1);
+        long[] masks = new long[3];
+        for (int n = 0; n < 1000; n++) {
+            ByteBuffer buf = StructuralIndex.wrap(randomBytes(random, 64 + 7));
+            int pos = random.nextInt(8);
+            long[] expected = new long[3];
+            for (int i = 0; i < 64; i++) {
+                byte b = buf.get(pos + i);
+                if (b == '"')
+                    expected[StructuralIndex.QUOTE] |= 1L << i;
+                else if (b == '\n')
+                    expected[StructuralIndex.NEWLINE] |= 1L << i;
+                else if (b == ',')
+                    expected[StructuralIndex.COMMA] |= 1L << i;
+            }
+            for (StructuralIndex.Classifier classifier : new StructuralIndex.Classifier[] {swar, StructuralIndex.CLASSIFIER}) {
+                classifier.classify(buf, pos, masks);
+                assertArrayEquals(expected, masks, classifier.toString());
+                assertEquals(expected[StructuralIndex.QUOTE], classifier.quotes(buf, pos), classifier.toString());
+            }
+            // a block cut short
+            int to = pos + random.nextInt(64);
+            StructuralIndex.classify(buf, pos, to, masks);
+            long kept = (1L << (to - pos)) - 1;
+            for (int m = 0; m < 3; m++)
+                assertEquals(expected[m] & kept, masks[m]);
+        }
+    }
+
+    @Test
+    void recordEnds() {
+        Random random = new Random(2);
+        for (int n = 0; n < 300; n++) {
+            ByteBuffer buf = StructuralIndex.wrap(randomBytes(random, random.nextInt(600)));
+            int from = buf.limit() == 0 ? 0 : random.nextInt(buf.limit());
+            boolean ifInQuotes = random.nextBoolean();
+
+            // a byte at a time
+            boolean inQuotes = ifInQuotes;
+            int first = -1, last = -1;
+            long records = 0, quotes = 0;
+            for (int pos = from; pos < buf.limit(); pos++) {
+                byte b = buf.get(pos);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                    quotes++;
+                } else if (b == '\n' && !inQuotes) {
+                    records++;
+                    if (first == -1)
+                        first = pos + 1;
+                    last = pos + 1;
+                }
+            }
+
+            StructuralIndex index = new StructuralIndex(ifInQuotes);
+            assertEquals(last, index.lastRecordEnd(buf, from, buf.limit()));
+            assertEquals(records, index.getRecords());
+            assertEquals(inQuotes, index.isInQuotes());
+            assertEquals(first, new StructuralIndex(ifInQuotes).firstRecordEnd(buf, from, buf.limit()));
+            assertEquals(quotes, StructuralIndex.countQuotes(buf, from, buf.limit()));
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+            bytes[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        return bytes;
+    }
+}
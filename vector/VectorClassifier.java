@@ -0,0 +1,94 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Class VectorClassifier
+ *
+ * StructuralIndex.Classifier on jdk.incubator.vector - each 64 byte block is compared against
+ *   '"', '\n' & ',' a vector at a time, as simdjson does it with SIMD instructions.  The widest
+ *   species the CPU has is used, up to 64 lanes (one vector per block with AVX-512, two with AVX2)
+ *
+ * JDK 17 doesn't compile VectorMask.toLong to vector instructions (it boxes every mask), so the
+ *   lanes become bits the long way round, all of it compiled to vector instructions:
+ *
+ *   blend      lane i -> 1 << (i % 8) if it matched, else 0
+ *   multiply   each long of 8 lanes * 0x0101010101010101 - their bits summed into its top byte
+ *   shift      top byte of long j down to bits 8j..8j+7
+ *   OR         all the longs together
+ *
+ *   The pipeline is written out in classify & quotes rather than in a helper - vectors passed to
+ *   a call the JIT doesn't inline get boxed too
+ *
+ * Only compiled by mvn -P vector (it needs --add-modules jdk.incubator.vector) and only used when
+ *   the JVM was started with it too - StructuralIndex falls back to SWAR otherwise.  JMH forks are
+ *   started with the same options as the java running them
+ *
+ *   java --add-modules jdk.incubator.vector -cp target/practice-it-grader-2.1.jar PracticeItGrader
+ *   java --add-modules jdk.incubator.vector -jar target/benchmarks.jar CodeBenchmark.structuralIndex
+ *
+ * Version 2.1 - 10/18/26 initial version
+ */
+class VectorClassifier implements StructuralIndex.Classifier {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED.length() > 64
+            ? ByteVector.SPECIES_512 : ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> WORDS = SPECIES.withLanes(long.class);
+    private static final ByteVector WEIGHTS;  // 1 << (i % 8) in lane i
+    private static final LongVector SHIFTS;   // 8 * j in lane j
+    private static final long SUM = 0x0101010101010101L;
+    private static final byte[] CHARS = new byte[3]; // of each StructuralIndex mask
+
+    static {
+        CHARS[StructuralIndex.QUOTE] = '"';
+        CHARS[StructuralIndex.NEWLINE] = '\n';
+        CHARS[StructuralIndex.COMMA] = ',';
+        byte[] weights = new byte[SPECIES.length()];
+        for (int i = 0; i < weights.length; i++)
+            weights[i] = (byte) (1 << (i % 8));
+        WEIGHTS = ByteVector.fromArray(SPECIES, weights, 0);
+        long[] shifts = new long[WORDS.length()];
+        for (int j = 0; j < shifts.length; j++)
+            shifts[j] = 8 * j;
+        SHIFTS = LongVector.fromArray(WORDS, shifts, 0);
+    }
+
+    @Override
+    public void classify(ByteBuffer buf, int pos, long[] masks) {
+        masks[StructuralIndex.QUOTE] = 0;
+        masks[StructuralIndex.NEWLINE] = 0;
+        masks[StructuralIndex.COMMA] = 0;
+        for (int i = 0; i < 64; i += SPECIES.length()) {
+            ByteVector bytes = ByteVector.fromByteBuffer(SPECIES, buf, pos + i, ByteOrder.LITTLE_ENDIAN);
+            for (int m = 0; m < CHARS.length; m++)
+                masks[m] |= ByteVector.zero(SPECIES).blend(WEIGHTS, bytes.eq(CHARS[m])).reinterpretAsLongs()
+                        .lanewise(VectorOperators.MUL, SUM)
+                        .lanewise(VectorOperators.LSHR, 56)
+                        .lanewise(VectorOperators.LSHL, SHIFTS)
+                        .reduceLanes(VectorOperators.OR) << i;
+        }
+    }
+
+    @Override
+    public long quotes(ByteBuffer buf, int pos) {
+        long quotes = 0;
+        for (int i = 0; i < 64; i += SPECIES.length()) {
+            ByteVector bytes = ByteVector.fromByteBuffer(SPECIES, buf, pos + i, ByteOrder.LITTLE_ENDIAN);
+            quotes |= ByteVector.zero(SPECIES).blend(WEIGHTS, bytes.eq((byte) '"')).reinterpretAsLongs()
+                    .lanewise(VectorOperators.MUL, SUM)
+                    .lanewise(VectorOperators.LSHR, 56)
+                    .lanewise(VectorOperators.LSHL, SHIFTS)
+                    .reduceLanes(VectorOperators.OR) << i;
+        }
+        return quotes;
+    }
+
+    @Override
+    public String toString() {
+        return "Vector API " + SPECIES.vectorBitSize() + " bit";
+    }
+
+}